@@ -0,0 +1,80 @@
+package com.pagamento.Cliente.Utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Custo de {@link CPFValidator#validarCPF(String)} para um CPF valido (caminho completo)
+ * e para um CPF com digito verificador incorreto, comparado com a implementacao anterior
+ * baseada em regex (validarCpfAnterior). Rodar com -prof gc para ver a alocacao por chamada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CPFValidatorBenchmark {
+
+    private final CPFValidator validator = new CPFValidator();
+
+    private String cpfValido = "33475078007";
+    private String cpfInvalido = "33475078008";
+    private String[] lote;
+
+    @Setup
+    public void setUp() {
+        lote = new String[1_000];
+        for (int i = 0; i < lote.length; i++) {
+            lote[i] = i % 2 == 0 ? cpfValido : cpfInvalido;
+        }
+    }
+
+    @Benchmark
+    public boolean validarCpfValido() {
+        return validator.validarCPF(cpfValido);
+    }
+
+    @Benchmark
+    public boolean validarCpfInvalido() {
+        return validator.validarCPF(cpfInvalido);
+    }
+
+    @Benchmark
+    public boolean validarCpfAnterior() {
+        return validarAnterior(cpfValido);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean[] validarLoteDeMilCpfs() {
+        return validator.validarCPFs(lote);
+    }
+
+    // Copia da implementacao anterior, mantida apenas como referencia de desempenho
+    private static boolean validarAnterior(String cpf) {
+        if (cpf == null || !Pattern.matches("\\d{11}", cpf)) {
+            return false;
+        }
+        int[] multiplicadoresPrimeiroDigito = {10, 9, 8, 7, 6, 5, 4, 3, 2};
+        int[] multiplicadoresSegundoDigito = {11, 10, 9, 8, 7, 6, 5, 4, 3, 2};
+        if (digitoAnterior(cpf.substring(0, 9), multiplicadoresPrimeiroDigito) != Character.getNumericValue(cpf.charAt(9))) {
+            return false;
+        }
+        return digitoAnterior(cpf.substring(0, 10), multiplicadoresSegundoDigito) == Character.getNumericValue(cpf.charAt(10));
+    }
+
+    private static int digitoAnterior(String cpfParcial, int[] multiplicadores) {
+        int total = 0;
+        for (int i = 0; i < cpfParcial.length(); i++) {
+            total += Character.getNumericValue(cpfParcial.charAt(i)) * multiplicadores[i];
+        }
+        int resto = total % 11;
+        return (resto < 2) ? 0 : (11 - resto);
+    }
+}
@@ -0,0 +1,58 @@
+package com.pagamento.Exception;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Utils.UuidV7;
+
+/**
+ * Serializacao Jackson das respostas mais frequentes: o Pagamento aprovado e o ApiError
+ * devolvido pelo GlobalExceptionHandler. O ObjectMapper e montado como o do Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializacaoBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Pagamento pagamento;
+    private ApiError apiError;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        pagamento = new Pagamento(UuidV7.gerar(), "33475078007", "1234567812345678", "12/29", "123",
+                new BigDecimal("150.00"), Instant.now());
+        apiError = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .code(404)
+                .status("NOT_FOUND")
+                .erros(List.of("Cliente não encontrado para este CPF: 33475078007"))
+                .build();
+    }
+
+    @Benchmark
+    public String serializarPagamento() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(pagamento);
+    }
+
+    @Benchmark
+    public String serializarApiError() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(apiError);
+    }
+}
@@ -0,0 +1,118 @@
+package com.pagamento.Pagamento.Service;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Cartao.DTO.CartaoAutorizacaoDTO;
+import com.pagamento.Cartao.Service.CartaoService;
+import com.pagamento.Cartao.Service.LimiteCartaoLedger;
+import com.pagamento.Cartao.Utils.CvvHasher;
+import com.pagamento.Cliente.Model.Cliente;
+import com.pagamento.Cliente.Repository.ClienteRepository;
+import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Repository.EventoPagamentoRepository;
+import com.pagamento.Pagamento.Repository.PagamentoRepository;
+
+/**
+ * Logica de decisao de {@link PagamentoServiceImpl#cadastrarPagamento(Pagamento)} no modo memoria:
+ * busca do cliente, validacao do cartao (hash do CVV), reserva no ledger e gravacao do pagamento
+ * e do evento no outbox.
+ * Repositorios e CartaoService sao stubs escritos a mao, portanto nem o banco nem o custo de
+ * um framework de mocks (captura de stack trace por chamada) entram na medicao.
+ * registrarEtapa mede sozinho o custo de um registro em {@link MetricasPagamento} com o registry
+ * do Prometheus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CadastrarPagamentoBenchmark {
+
+    private static final String CPF = "33475078007";
+    private static final String NUMERO = "1234567812345678";
+
+    private PagamentoServiceImpl pagamentoService;
+    private MetricasPagamento metricasPagamento;
+    private Pagamento pagamento;
+
+    @Setup
+    public void setUp() {
+        Cliente cliente = new Cliente();
+        CartaoAutorizacaoDTO cartao = new CartaoAutorizacaoDTO(NUMERO, CPF, "12/29", CvvHasher.hash(NUMERO, "123"));
+
+        ClienteRepository clienteRepository = stub(ClienteRepository.class, Map.of("findByCpf", args -> cliente));
+        PagamentoRepository pagamentoRepository = stub(PagamentoRepository.class,
+                Map.of("save", args -> args[0], "flush", args -> null));
+        EventoPagamentoRepository eventoPagamentoRepository = stub(EventoPagamentoRepository.class,
+                Map.of("save", args -> args[0]));
+        CartaoService cartaoService = new CartaoService(null, null, null, null) {
+            @Override
+            public CartaoAutorizacaoDTO buscarCartaoParaAutorizacao(String numero) {
+                return cartao;
+            }
+
+            @Override
+            public BigDecimal buscarLimite(String numero) {
+                // Alto o bastante para que as reservas nunca sejam recusadas durante a medicao
+                return new BigDecimal("100000000000.00");
+            }
+
+            @Override
+            public boolean debitarLimite(String numero, BigDecimal valor) {
+                return true;
+            }
+        };
+
+        metricasPagamento = new MetricasPagamento(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        pagamentoService = new PagamentoServiceImpl(pagamentoRepository, clienteRepository, cartaoService,
+                new LimiteCartaoLedger(100_000, Duration.ofMinutes(10)), null, null, new ObjectMapper(), metricasPagamento,
+                new OutboxPagamento(eventoPagamentoRepository, new ObjectMapper()),
+                new LimitadorTaxaPagamento(false, 1, 1, 1, 1, Duration.ofMinutes(5), System::nanoTime));
+        ReflectionTestUtils.setField(pagamentoService, "modoAutorizacao", ModoAutorizacao.MEMORIA);
+
+        pagamento = new Pagamento(null, CPF, NUMERO, "12/29", "123", new BigDecimal("0.10"), null);
+    }
+
+    @Benchmark
+    public Pagamento cadastrarPagamento() {
+        // O estorno da reserva e registrado na transacao; aqui ela e simulada e descartada a cada chamada
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            return pagamentoService.cadastrarPagamento(pagamento);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Benchmark
+    public long registrarEtapa() {
+        return metricasPagamento.registrar(MetricasPagamento.Etapa.CLIENTE, System.nanoTime());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> tipo, Map<String, Function<Object[], Object>> respostas) {
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, method, args) -> {
+            Function<Object[], Object> resposta = respostas.get(method.getName());
+            if (resposta != null) {
+                return resposta.apply(args);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.pagamento.Pagamento.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Custo do limitador no caminho aprovado de POST /api/pagamentos: 100.000 CPFs e cartoes
+ * distintos, com limites altos o bastante para que nenhuma requisicao seja recusada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LimitadorTaxaPagamentoBenchmark {
+
+    private static final int TOTAL_CHAVES = 100_000;
+
+    private LimitadorTaxaPagamento limitador;
+    private String[] cpfs;
+    private String[] cartoes;
+
+    @Setup
+    public void setUp() {
+        limitador = new LimitadorTaxaPagamento(true, 1_000_000, 1_000_000, 1_000_000, 1_000_000, Duration.ofMinutes(5));
+        cpfs = new String[TOTAL_CHAVES];
+        cartoes = new String[TOTAL_CHAVES];
+        for (int i = 0; i < TOTAL_CHAVES; i++) {
+            cpfs[i] = String.format("%011d", i);
+            cartoes[i] = String.format("%016d", i);
+        }
+    }
+
+    @Benchmark
+    public long consumir() {
+        int i = ThreadLocalRandom.current().nextInt(TOTAL_CHAVES);
+        return limitador.consumir(cpfs[i], cartoes[i]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long consumirConcorrente() {
+        int i = ThreadLocalRandom.current().nextInt(TOTAL_CHAVES);
+        return limitador.consumir(cpfs[i], cartoes[i]);
+    }
+}
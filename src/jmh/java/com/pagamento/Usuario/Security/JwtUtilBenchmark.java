@@ -0,0 +1,71 @@
+package com.pagamento.Usuario.Security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Emissao e validacao de tokens JWT, executadas a cada login e a cada requisicao autenticada.
+ * Os benchmarks filtro* reproduzem o trabalho do JwtRequestFilter por requisicao: o fluxo
+ * anterior (tres leituras do token), uma unica leitura e a leitura via TokenVerificadoCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtUtilBenchmark {
+
+    private static final String USUARIO = "usuario.benchmark";
+
+    private JwtUtil jwtUtil;
+    private TokenVerificadoCache tokenVerificadoCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "Aa12345678sdfgsdfgsdfgsdfgsdfgsdfgsdfgsdfg");
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 3_600_000L);
+        token = jwtUtil.generateToken(USUARIO);
+        tokenVerificadoCache = new TokenVerificadoCache(jwtUtil, 10_000, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(USUARIO);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, USUARIO);
+    }
+
+    @Benchmark
+    public Boolean filtroTresLeituras() {
+        String username = jwtUtil.extractUsername(token);
+        return jwtUtil.validateToken(token, username) && jwtUtil.extractExpiration(token) != null;
+    }
+
+    @Benchmark
+    public Boolean filtroUmaLeitura() {
+        return jwtUtil.validateToken(jwtUtil.extrairClaims(token), USUARIO);
+    }
+
+    @Benchmark
+    public Boolean filtroComCache() {
+        return jwtUtil.validateToken(tokenVerificadoCache.verificar(token), USUARIO);
+    }
+}
@@ -6,11 +6,16 @@ import com.pagamento.Cartao.Service.CartaoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
 
@@ -22,6 +27,9 @@ public class CartaoController {
     @Autowired
     private CartaoService cartaoService;
 
+    @Value("${cartao.listagem.tamanho-maximo-pagina}")
+    private int tamanhoMaximoPagina;
+
     @PostMapping
     @Operation(summary = "Efetua a inclusão de um novo Cartão", method = "POST")
     public ResponseEntity<CartaoDTO> cadastrarCartao(@Valid @RequestBody Cartao cartao) {
@@ -30,15 +38,38 @@ public class CartaoController {
     }
 
     @GetMapping("/numero/{numero}")
-    @Operation(summary = "Obtem os cartões cadastrados efetuando a busca por Cpf", method = "GET")
-    public ResponseEntity<List<Cartao>> buscarCartaoPorNumero(@PathVariable String cpf) {
-        return ResponseEntity.ok().body(Collections.singletonList((Cartao) cartaoService.buscarCartaoPorNumero(cpf)));
+    @Operation(summary = "Obtem o cartão com o número informado", method = "GET")
+    public ResponseEntity<List<Cartao>> buscarCartaoPorNumero(@PathVariable String numero) {
+        return ResponseEntity.ok().body(Collections.singletonList(cartaoService.buscarCartaoPorNumero(numero)));
+    }
+
+    @GetMapping("/pesquisa")
+    @Operation(summary = "Pesquisa administrativa e paginada de cartões por trecho do número", method = "GET")
+    public ResponseEntity<Slice<Cartao>> pesquisarCartoesPorNumero(@RequestParam String numero,
+                                                                  @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok().body(cartaoService.pesquisarCartoesPorNumero(numero, pageable));
     }
 
     @GetMapping()
-    @Operation(summary = "Obtem todos os Cartoes", method = "GET")
-    public ResponseEntity<List<Cartao>> buscarCartao() {
-        return ResponseEntity.ok().body(cartaoService.buscarCartao());
+    @Operation(summary = "Lista os Cartoes paginados por cursor, opcionalmente apenas com os campos informados", method = "GET")
+    public ResponseEntity<?> listarCartoes(@RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int tamanho,
+                                           @RequestParam(required = false) List<String> fields) {
+        if (tamanho < 1 || tamanho > tamanhoMaximoPagina) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("O tamanho da página deve estar entre 1 e " + tamanhoMaximoPagina);
+        }
+        try {
+            return ResponseEntity.ok().body(cartaoService.listarCartoes(cursor, tamanho, fields));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+        }
+    }
+
+    @PatchMapping("/numero/{numero}/limite")
+    @Operation(summary = "Altera o limite de um Cartão", method = "PATCH")
+    public ResponseEntity<CartaoDTO> atualizarLimite(@PathVariable String numero, @RequestParam BigDecimal limite) {
+        return ResponseEntity.ok().body(cartaoService.atualizarLimite(numero, limite));
     }
 
 
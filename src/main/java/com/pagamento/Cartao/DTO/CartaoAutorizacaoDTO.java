@@ -0,0 +1,12 @@
+package com.pagamento.Cartao.DTO;
+
+// Dados do cartao mantidos no cache de autorizacao: o CVV fica apenas como hash. O limite muda a cada debito
+// e e lido do banco (ou do ledger), entao nao faz parte do cache.
+public record CartaoAutorizacaoDTO(
+        String numero,
+        String cpf,
+        String dataValidade,
+        String cvvHash
+){
+
+}
@@ -0,0 +1,13 @@
+package com.pagamento.Cartao.DTO;
+
+import java.math.BigDecimal;
+
+// Projecao usada na listagem: validade e CVV nunca sao lidos
+public interface CartaoResumo {
+
+    String getNumero();
+
+    String getCpf();
+
+    BigDecimal getLimite();
+}
@@ -0,0 +1,12 @@
+package com.pagamento.Cartao.DTO;
+
+import java.math.BigDecimal;
+
+public record DebitoCartaoDTO(
+        String numero,
+        String cpf,
+        String cvv,
+        BigDecimal valor
+){
+
+}
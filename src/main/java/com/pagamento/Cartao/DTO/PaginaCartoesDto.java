@@ -0,0 +1,17 @@
+package com.pagamento.Cartao.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCartoesDto {
+
+    private List<?> cartoes;
+    private String proximoCursor;
+
+}
@@ -0,0 +1,39 @@
+package com.pagamento.Cartao.Repository;
+
+import com.pagamento.Cartao.DTO.DebitoCartaoDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// Operacoes de limite em lote: cada metodo envia todos os UPDATEs em um unico batch JDBC
+@Repository
+public class CartaoJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CartaoJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Retorna, na ordem de valoresPorCartao, 1 para cada cartao debitado e 0 quando o limite nao cobre o valor
+    public int[] debitarLimites(Map<String, BigDecimal> valoresPorCartao) {
+        List<Object[]> parametros = valoresPorCartao.entrySet().stream()
+                .map(debito -> new Object[]{debito.getValue(), debito.getKey(), debito.getValue()})
+                .toList();
+        return jdbcTemplate.batchUpdate("UPDATE cartao SET limite = limite - ? WHERE numero = ? AND limite >= ?",
+                parametros);
+    }
+
+    // Retorna, na ordem recebida, 1 para cada debito autorizado e 0 para os recusados
+    public int[] autorizarDebitos(List<DebitoCartaoDTO> debitos) {
+        List<Object[]> parametros = debitos.stream()
+                .map(debito -> new Object[]{debito.valor(), debito.numero(), debito.cpf(), debito.cvv(), debito.valor()})
+                .toList();
+        return jdbcTemplate.batchUpdate(
+                "UPDATE cartao SET limite = limite - ? WHERE numero = ? AND cpf = ? AND cvv = ? AND limite >= ?",
+                parametros);
+    }
+}
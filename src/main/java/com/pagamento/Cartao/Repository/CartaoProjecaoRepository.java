@@ -0,0 +1,17 @@
+package com.pagamento.Cartao.Repository;
+
+import com.pagamento.Cartao.Model.Cartao;
+import com.pagamento.Config.ProjecaoCamposRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Repository;
+
+import java.util.Set;
+
+// Listagem de cartoes por campos (fields=), paginada pelo numero do cartao; data_validade e cvv nao podem ser listados
+@Repository
+public class CartaoProjecaoRepository extends ProjecaoCamposRepository<Cartao, String> {
+
+    public CartaoProjecaoRepository(EntityManager entityManager) {
+        super(entityManager, Cartao.class, "numero", Set.of("numero", "cpf", "limite"));
+    }
+}
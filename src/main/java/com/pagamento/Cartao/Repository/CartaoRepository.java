@@ -1,21 +1,47 @@
 package com.pagamento.Cartao.Repository;
 
 import com.pagamento.Cartao.Model.Cartao;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
-import java.util.UUID;
 
-public interface CartaoRepository extends JpaRepository<Cartao, UUID> {
+public interface CartaoRepository extends JpaRepository<Cartao, String> {
     @Query("select count(numero) from Cartao where cpf = ?1")
 
     int countCartaoByCpf(String cpf);
 
-    @Query("SELECT c FROM Cartao c WHERE upper(c.numero) like concat('%', upper(:numero), '%')")
-    Cartao findByNumero(@Param("numero") String numero);
+    // Busca administrativa por trecho do numero: nao usa indice, por isso e sempre paginada
+    @Query("SELECT c FROM Cartao c WHERE c.numero like concat('%', :numero, '%') ORDER BY c.numero")
+    Slice<Cartao> pesquisarPorNumero(@Param("numero") String numero, Pageable pageable);
 
-    @Query("SELECT c FROM Cliente c WHERE upper(c.cpf) = upper(:cpf)")
+    List<Cartao> findByNumeroIn(Collection<String> numeros);
+
+    <T> List<T> findByOrderByNumeroAsc(Limit limit, Class<T> tipo);
+
+    <T> List<T> findByNumeroGreaterThanOrderByNumeroAsc(String numero, Limit limit, Class<T> tipo);
+
+    @Query("SELECT c FROM Cartao c WHERE c.cpf = :cpf")
     List<Cartao> findByCpf(@Param("cpf") String cpf);
+
+    @Query("SELECT c.limite FROM Cartao c WHERE c.numero = :numero")
+    BigDecimal buscarLimite(@Param("numero") String numero);
+
+    @Modifying
+    @Query("UPDATE Cartao c SET c.limite = c.limite - :valor WHERE c.numero = :numero AND c.limite >= :valor")
+    int debitarLimite(@Param("numero") String numero, @Param("valor") BigDecimal valor);
+
+    @Modifying
+    @Query("UPDATE Cartao c SET c.limite = c.limite - :valor " +
+           "WHERE c.numero = :numero AND c.cpf = :cpf AND c.cvv = :cvv AND c.limite >= :valor " +
+           "AND EXISTS (SELECT 1 FROM Cliente cl WHERE cl.cpfNormalizado = :cpf)")
+    int autorizarDebito(@Param("numero") String numero, @Param("cpf") String cpf,
+                        @Param("cvv") String cvv, @Param("valor") BigDecimal valor);
 }
\ No newline at end of file
@@ -1,23 +1,54 @@
 package com.pagamento.Cartao.Service;
 
+import com.pagamento.Cartao.DTO.CartaoAutorizacaoDTO;
 import com.pagamento.Cartao.DTO.CartaoDTO;
+import com.pagamento.Cartao.DTO.CartaoResumo;
+import com.pagamento.Cartao.DTO.DebitoCartaoDTO;
+import com.pagamento.Cartao.DTO.PaginaCartoesDto;
 import com.pagamento.Cartao.Model.Cartao;
+import com.pagamento.Cartao.Repository.CartaoJdbcRepository;
+import com.pagamento.Cartao.Repository.CartaoProjecaoRepository;
 import com.pagamento.Cartao.Repository.CartaoRepository;
+import com.pagamento.Cartao.Utils.CvvHasher;
+import com.pagamento.Config.CacheConfig;
+import com.pagamento.Config.LeituraReplica;
 import com.pagamento.Exception.ServiceException;
 import jakarta.validation.Valid;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CartaoService {
 
     private  final CartaoRepository CartaoRepository;
+    private final CartaoJdbcRepository cartaoJdbcRepository;
+    private final CartaoProjecaoRepository cartaoProjecaoRepository;
+    private final LimiteCartaoLedger limiteCartaoLedger;
 
-    public CartaoService(CartaoRepository CartaoRepository){
+    public CartaoService(CartaoRepository CartaoRepository, CartaoJdbcRepository cartaoJdbcRepository,
+                         CartaoProjecaoRepository cartaoProjecaoRepository, LimiteCartaoLedger limiteCartaoLedger){
         this.CartaoRepository = CartaoRepository;
+        this.cartaoJdbcRepository = cartaoJdbcRepository;
+        this.cartaoProjecaoRepository = cartaoProjecaoRepository;
+        this.limiteCartaoLedger = limiteCartaoLedger;
     }
 
+    @CacheEvict(value = CacheConfig.CARTOES, key = "#cartaoDTO.numero")
     public CartaoDTO criarCartao(@Valid Cartao cartaoDTO) throws ServiceException {
         Cartao cartao = toEntity(cartaoDTO);
 
@@ -26,25 +57,102 @@ public class CartaoService {
         } catch (Exception e) {
             throw new ServiceException("Erro ao inserir o Cartao: " + e.getMessage());
         }
+        limiteCartaoLedger.invalidar(cartao.getNumero());
         return toDTO(cartao);
     }
 
-    public List<Cartao> buscarCartao() throws ServiceException {
-        List<Cartao> Cartao = CartaoRepository.findAll();
-        if (Cartao.isEmpty()) {
-            throw new ServiceException("Nenhum cartão encontrado.");
+    // Pagina pelo numero do cartao (keyset); sem fields usa a projecao CartaoResumo
+    @LeituraReplica
+    @Transactional(readOnly = true)
+    public PaginaCartoesDto listarCartoes(String cursor, int tamanho, List<String> campos) {
+        Limit limite = Limit.of(tamanho + 1);
+        List<?> cartoes;
+        List<String> numeros = new ArrayList<>();
+
+        if (campos == null || campos.isEmpty()) {
+            List<CartaoResumo> resumos = cursor == null
+                    ? CartaoRepository.findByOrderByNumeroAsc(limite, CartaoResumo.class)
+                    : CartaoRepository.findByNumeroGreaterThanOrderByNumeroAsc(cursor, limite, CartaoResumo.class);
+            resumos.forEach(c -> numeros.add(c.getNumero()));
+            cartoes = resumos;
+        } else {
+            List<Map<String, Object>> linhas = cartaoProjecaoRepository.buscarCampos(campos, cursor, tamanho + 1);
+            linhas.forEach(c -> numeros.add((String) c.get("numero")));
+            cartoes = linhas;
+        }
+
+        if (cartoes.size() <= tamanho) {
+            return new PaginaCartoesDto(cartoes, null);
         }
-        return Cartao;
+        return new PaginaCartoesDto(cartoes.subList(0, tamanho), numeros.get(tamanho - 1));
+    }
+
+    // Busca exata pela chave primaria (numero)
+    public Cartao buscarCartaoPorNumero(String numero) throws ServiceException {
+        return CartaoRepository.findById(numero)
+                .orElseThrow(() -> new ServiceException("Cartão não encontrado para este numero : " + numero));
+    }
+
+    public Slice<Cartao> pesquisarCartoesPorNumero(String trecho, Pageable pageable) {
+        return CartaoRepository.pesquisarPorNumero(trecho, pageable);
+    }
+
+    @Cacheable(value = CacheConfig.CARTOES, key = "#numero", unless = "#result == null")
+    public CartaoAutorizacaoDTO buscarCartaoParaAutorizacao(String numero) {
+        return CartaoRepository.findById(numero).map(this::toAutorizacaoDTO).orElse(null);
+    }
+
+    // Carrega todos os cartoes de um lote com uma unica consulta IN
+    public Map<String, CartaoAutorizacaoDTO> buscarCartoesParaAutorizacao(Collection<String> numeros) {
+        return CartaoRepository.findByNumeroIn(numeros).stream()
+                .map(this::toAutorizacaoDTO)
+                .collect(Collectors.toMap(CartaoAutorizacaoDTO::numero, Function.identity()));
     }
 
-    public List<Cartao> buscarCartaoPorNumero(String numero) throws ServiceException {
-        List<Cartao> Cartao = (List<Cartao>) CartaoRepository.findByNumero(numero);
-        if (Cartao.isEmpty()) {
-            throw new ServiceException("Cartão não encontrado para este numero : " + numero);
+    // O limite nao faz parte do cache de autorizacao: so o ledger e descartado
+    public CartaoDTO atualizarLimite(String numero, BigDecimal limite) throws ServiceException {
+        Cartao cartao = buscarCartaoPorNumero(numero);
+        cartao.setLimite(limite);
+
+        try {
+            cartao = CartaoRepository.save(cartao);
+        } catch (Exception e) {
+            throw new ServiceException("Erro ao atualizar o limite do Cartao: " + e.getMessage());
         }
-        return Cartao;
+        limiteCartaoLedger.invalidar(numero);
+        return toDTO(cartao);
     }
 
+    // Limite gravado, sem passar pelo cache: base do saldo do ledger
+    public BigDecimal buscarLimite(String numero) {
+        return CartaoRepository.buscarLimite(numero);
+    }
+
+    // false quando o limite gravado nao cobre o valor
+    public boolean debitarLimite(String numero, BigDecimal valor) {
+        return CartaoRepository.debitarLimite(numero, valor) == 1;
+    }
+
+    public int autorizarDebito(String numero, String cpf, String cvv, BigDecimal valor) {
+        return CartaoRepository.autorizarDebito(numero, cpf, cvv, valor);
+    }
+
+    // Retorna os cartoes cujo limite gravado nao cobre o total do lote; esses nao sao debitados
+    public Set<String> debitarLimitesEmLote(Map<String, BigDecimal> valoresPorCartao) {
+        int[] debitados = cartaoJdbcRepository.debitarLimites(valoresPorCartao);
+        Set<String> recusados = new HashSet<>();
+        int i = 0;
+        for (String numero : valoresPorCartao.keySet()) {
+            if (debitados[i++] == 0) {
+                recusados.add(numero);
+            }
+        }
+        return recusados;
+    }
+
+    public int[] autorizarDebitosEmLote(List<DebitoCartaoDTO> debitos) {
+        return cartaoJdbcRepository.autorizarDebitos(debitos);
+    }
 
     public CartaoDTO toDTO(Cartao cartao) {
         return new CartaoDTO(
@@ -55,6 +163,14 @@ public class CartaoService {
                 cartao.getCvv());
     }
 
+    public CartaoAutorizacaoDTO toAutorizacaoDTO(Cartao cartao) {
+        return new CartaoAutorizacaoDTO(
+                cartao.getNumero(),
+                cartao.getCpf(),
+                cartao.getData_validade(),
+                CvvHasher.hash(cartao.getNumero(), cartao.getCvv()));
+    }
+
     public Cartao toEntity(Cartao cartaoDTO) {
         Cartao cartao = new Cartao();
         cartao.setNumero(cartaoDTO.getNumero());
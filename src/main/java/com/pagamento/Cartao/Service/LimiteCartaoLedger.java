@@ -0,0 +1,72 @@
+package com.pagamento.Cartao.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Saldo disponivel de cada cartao, em centavos, mantido em memoria.
+ *
+ * Cada cartao tem o seu proprio AtomicLong e a reserva e feita com compareAndSet,
+ * portanto pagamentos em cartoes diferentes nunca disputam o mesmo lock. O saldo
+ * e inicializado a partir do limite gravado no banco na primeira reserva do cartao
+ * e e a referencia desta instancia a partir dai.
+ *
+ * Os saldos ficam em um cache limitado: cartoes sem pagamentos pela ociosidade configurada, ou os
+ * menos usados alem do tamanho maximo, sao descartados e voltam a ser lidos do banco. O debito no
+ * banco continua condicionado ao limite gravado, entao um saldo descartado ou divergente nunca
+ * aprova um valor acima do limite.
+ */
+@Component
+public class LimiteCartaoLedger {
+
+    private final Cache<String, AtomicLong> saldos;
+
+    public LimiteCartaoLedger(@Value("${pagamento.ledger.tamanho-maximo}") long tamanhoMaximo,
+                              @Value("${pagamento.ledger.ociosidade}") Duration ociosidade) {
+        this.saldos = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(ociosidade)
+                .build();
+    }
+
+    public boolean reservar(String numero, long centavos, LongSupplier saldoInicial) {
+        AtomicLong saldo = saldos.get(numero, n -> new AtomicLong(saldoInicial.getAsLong()));
+        long atual;
+        do {
+            atual = saldo.get();
+            if (atual < centavos) {
+                return false;
+            }
+        } while (!saldo.compareAndSet(atual, atual - centavos));
+        return true;
+    }
+
+    public void estornar(String numero, long centavos) {
+        AtomicLong saldo = saldos.getIfPresent(numero);
+        if (saldo != null) {
+            saldo.addAndGet(centavos);
+        }
+    }
+
+    // Descarta o saldo em memoria; a proxima reserva volta a ler o limite do banco
+    public void invalidar(String numero) {
+        saldos.invalidate(numero);
+    }
+
+    public Long saldoDisponivel(String numero) {
+        AtomicLong saldo = saldos.getIfPresent(numero);
+        return saldo == null ? null : saldo.get();
+    }
+
+    public static long paraCentavos(BigDecimal valor) {
+        return valor.movePointRight(2).setScale(0, RoundingMode.DOWN).longValueExact();
+    }
+}
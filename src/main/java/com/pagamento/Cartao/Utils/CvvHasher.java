@@ -0,0 +1,36 @@
+package com.pagamento.Cartao.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+public final class CvvHasher {
+
+    private CvvHasher() {
+    }
+
+    public static String hash(String numero, String cvv) {
+        if (cvv == null) {
+            return null;
+        }
+        try {
+            // O numero do cartao entra como sal para que CVVs iguais nao gerem o mesmo hash
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(numero.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ':');
+            return Base64.getEncoder().encodeToString(digest.digest(cvv.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponivel", e);
+        }
+    }
+
+    public static boolean confere(String cvvHash, String numero, String cvv) {
+        String informado = hash(numero, cvv);
+        if (cvvHash == null || informado == null) {
+            return false;
+        }
+        // Comparacao em tempo constante
+        return MessageDigest.isEqual(cvvHash.getBytes(StandardCharsets.UTF_8), informado.getBytes(StandardCharsets.UTF_8));
+    }
+}
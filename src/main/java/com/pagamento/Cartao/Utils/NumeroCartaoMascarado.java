@@ -0,0 +1,30 @@
+package com.pagamento.Cartao.Utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Numero do cartao em respostas, eventos e exportacoes: apenas os 4 ultimos digitos ficam visiveis
+public class NumeroCartaoMascarado extends StdSerializer<String> {
+
+    private static final int DIGITOS_VISIVEIS = 4;
+
+    public NumeroCartaoMascarado() {
+        super(String.class);
+    }
+
+    public static String mascarar(String numero) {
+        if (numero == null || numero.length() <= DIGITOS_VISIVEIS) {
+            return numero;
+        }
+        int ocultos = numero.length() - DIGITOS_VISIVEIS;
+        return "*".repeat(ocultos) + numero.substring(ocultos);
+    }
+
+    @Override
+    public void serialize(String numero, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+        gerador.writeString(mascarar(numero));
+    }
+}
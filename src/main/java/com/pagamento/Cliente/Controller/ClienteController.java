@@ -5,7 +5,12 @@ import com.pagamento.Exception.ResourceNotFoundException;
 import com.pagamento.Exception.ServiceException;
 import com.pagamento.Cliente.Model.Cliente;
 import com.pagamento.Cliente.Service.ClienteService;
+import com.pagamento.Cliente.Service.FormatoImportacao;
+import com.pagamento.Cliente.Service.ImportacaoClienteService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,8 +19,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -23,12 +31,36 @@ import java.util.List;
 public class ClienteController {
 
     private final ClienteService clienteService;
+    private final ImportacaoClienteService importacaoClienteService;
 
-    public ClienteController(ClienteService clienteService) {
+    @Value("${cliente.listagem.tamanho-maximo-pagina}")
+    private int tamanhoMaximoPagina;
+
+    @Value("${cliente.importacao.tempo-maximo}")
+    private Duration tempoMaximoImportacao;
+
+    public ClienteController(ClienteService clienteService, ImportacaoClienteService importacaoClienteService) {
         this.clienteService = clienteService;
+        this.importacaoClienteService = importacaoClienteService;
     }
 
     @GetMapping
+    public ResponseEntity<?> listarClientes(@RequestParam(required = false) Long cursor,
+                                            @RequestParam(defaultValue = "50") int tamanho,
+                                            @RequestParam(required = false) List<String> fields) {
+        if (tamanho < 1 || tamanho > tamanhoMaximoPagina) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("O tamanho da página deve estar entre 1 e " + tamanhoMaximoPagina);
+        }
+        try {
+            return ResponseEntity.ok().body(clienteService.listarClientes(cursor, tamanho, fields));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+        }
+    }
+
+    // Lista completa, com endereco e usuario de cada cliente; para bases grandes use a listagem paginada
+    @GetMapping("/todos")
     public ResponseEntity<List<Cliente>> buscarClientes() throws ResourceNotFoundException {
         return ResponseEntity.ok().body(clienteService.buscarClientes());
     }
@@ -64,6 +96,27 @@ public class ClienteController {
         return new ResponseEntity<>(clienteSalva, HttpStatus.CREATED);
     }
 
+    // Corpo da requisicao: arquivo CSV (com cabecalho; campos entre aspas podem ter quebras de linha) ou NDJSON,
+    // um cliente por registro. A resposta NDJSON traz os registros recusados conforme cada bloco e gravado e
+    // termina com o resumo da importacao
+    @PostMapping("/importacao")
+    public WebAsyncTask<Void> importarClientes(@RequestParam(defaultValue = "ndjson") String formato,
+                                               HttpServletRequest request, HttpServletResponse response) {
+        FormatoImportacao formatoImportacao;
+        try {
+            formatoImportacao = FormatoImportacao.de(formato);
+        } catch (IllegalArgumentException ex) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return null;
+        }
+        response.setContentType("application/x-ndjson");
+        // Arquivos grandes levam mais que o limite padrao das requisicoes assincronas: o prazo vale so para esta tarefa
+        return new WebAsyncTask<>(tempoMaximoImportacao.toMillis(), () -> {
+            importacaoClienteService.importar(request.getInputStream(), formatoImportacao, response.getOutputStream());
+            return null;
+        });
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> excluirCliente(@PathVariable long id) throws ResourceNotFoundException {
         String msg = clienteService.excluirCliente(id);
@@ -0,0 +1,17 @@
+package com.pagamento.Cliente.DTO;
+
+import java.time.LocalDate;
+
+// Uma linha do arquivo de importacao: cliente, endereco e credenciais do usuario
+public record ClienteImportacaoDto(
+        String nome,
+        String email,
+        String cpf,
+        LocalDate nascimento,
+        String rua,
+        String numero,
+        String cep,
+        String complemento,
+        String username,
+        String password) {
+}
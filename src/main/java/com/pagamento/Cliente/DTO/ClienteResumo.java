@@ -0,0 +1,17 @@
+package com.pagamento.Cliente.DTO;
+
+import java.time.LocalDate;
+
+// Projecao usada na listagem: somente colunas da tabela cliente, sem os joins de endereco e usuario
+public interface ClienteResumo {
+
+    long getId();
+
+    String getNome();
+
+    String getEmail();
+
+    String getCpf();
+
+    LocalDate getNascimento();
+}
@@ -0,0 +1,6 @@
+package com.pagamento.Cliente.DTO;
+
+public record ErroImportacaoDto(
+        long linha,
+        String erro) {
+}
@@ -0,0 +1,17 @@
+package com.pagamento.Cliente.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaClientesDto {
+
+    private List<?> clientes;
+    private Long proximoCursor;
+
+}
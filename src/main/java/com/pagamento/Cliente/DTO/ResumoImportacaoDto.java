@@ -0,0 +1,7 @@
+package com.pagamento.Cliente.DTO;
+
+public record ResumoImportacaoDto(
+        long total,
+        long importados,
+        long rejeitados) {
+}
@@ -1,28 +1,31 @@
 package com.pagamento.Cliente.Model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.pagamento.Cliente.Utils.Normalizacao;
 import com.pagamento.Usuario.Model.Usuario;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.time.LocalDate;
 
 @Entity
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Table(name = "cliente")
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Cliente {
 
     @Id
     @Column(unique = true)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cliente_seq")
+    @SequenceGenerator(name = "cliente_seq", sequenceName = "cliente_seq", allocationSize = 50)
     private long id;
 
     @Column(nullable = false)
@@ -38,6 +41,17 @@ public class Cliente {
     @NotEmpty(message = "O CPF não pode estar vazio.")
     private String cpf;
 
+    // Chaves de busca indexadas, recalculadas a cada gravacao em normalizar()
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "cpf_normalizado", nullable = false)
+    private String cpfNormalizado;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "email_normalizado", nullable = false)
+    private String emailNormalizado;
+
     @Column(nullable = false)
     @NotNull(message = "O nascimento não pode estar vazio.")
     private LocalDate nascimento;
@@ -50,6 +64,11 @@ public class Cliente {
     @JoinColumn(name = "usuario_id", referencedColumnName = "id")
     private Usuario usuario;
 
+    public Cliente (long id, String nome, String email, String cpf, LocalDate nascimento, Endereco endereco, Usuario usuario) {
+        this(nome, email, cpf, nascimento, endereco, usuario);
+        this.id = id;
+    }
+
     public Cliente (String nome, String email, String cpf, LocalDate nascimento, Endereco endereco, Usuario usuario) {
         this.nome = nome;
         this.email = email;
@@ -59,4 +78,11 @@ public class Cliente {
         this.usuario = usuario;
     }
 
+    @PrePersist
+    @PreUpdate
+    void normalizar() {
+        cpfNormalizado = Normalizacao.digitos(cpf);
+        emailNormalizado = Normalizacao.email(email);
+    }
+
 }
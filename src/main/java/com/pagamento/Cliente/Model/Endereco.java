@@ -2,19 +2,21 @@ package com.pagamento.Cliente.Model;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.pagamento.Cliente.Utils.Normalizacao;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 
 @Entity
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Table(name = "endereco")
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Endereco {
@@ -23,7 +25,8 @@ public class Endereco {
     // @Column(unique = true)
     // ENTENDO QUE DUAS PESSOAS RESIDENTES NO MESMO ENDEREÇO PODEM TER CADASTROS EM UM MESMO ENDERECO
     // PORTANTO NÃO CABE UMA CHAVE PRIMARIA PARA TABELA ENDERECO
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "endereco_seq")
+    @SequenceGenerator(name = "endereco_seq", sequenceName = "endereco_seq", allocationSize = 50)
     private long id;
 
     @Column(nullable = false)
@@ -39,10 +42,31 @@ public class Endereco {
     @NotEmpty(message = "O CEP não pode estar vazio.")
     private String cep;
 
+    // Chave de busca indexada, recalculada a cada gravacao em normalizar()
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "cep_normalizado", nullable = false)
+    private String cepNormalizado;
+
     @Column(nullable = false)
     @NotEmpty(message = "O complemento não pode estar vazio.")
     private String complemento;
 
     @OneToMany(mappedBy = "endereco")
     List<Cliente> clientes;
+
+    public Endereco(long id, String rua, String numero, String cep, String complemento, List<Cliente> clientes) {
+        this.id = id;
+        this.rua = rua;
+        this.numero = numero;
+        this.cep = cep;
+        this.complemento = complemento;
+        this.clientes = clientes;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizar() {
+        cepNormalizado = Normalizacao.digitos(cep);
+    }
 }
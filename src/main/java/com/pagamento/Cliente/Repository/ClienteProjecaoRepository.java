@@ -0,0 +1,17 @@
+package com.pagamento.Cliente.Repository;
+
+import com.pagamento.Cliente.Model.Cliente;
+import com.pagamento.Config.ProjecaoCamposRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Repository;
+
+import java.util.Set;
+
+// Listagem de clientes por campos (fields=), paginada pelo id
+@Repository
+public class ClienteProjecaoRepository extends ProjecaoCamposRepository<Cliente, Long> {
+
+    public ClienteProjecaoRepository(EntityManager entityManager) {
+        super(entityManager, Cliente.class, "id", Set.of("id", "nome", "email", "cpf", "nascimento"));
+    }
+}
@@ -1,26 +1,56 @@
 package com.pagamento.Cliente.Repository;
 
 import com.pagamento.Cliente.Model.Cliente;
+import com.pagamento.Cliente.Utils.Normalizacao;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ClienteRepository extends JpaRepository <Cliente, Long> {
 
-    @Query("SELECT c FROM Cliente c WHERE upper(c.cpf) = upper(:cpf)")
-    Cliente findByCpf(@Param("cpf") String cpf);
+    // Buscas pelas chaves normalizadas (indices idx_cliente_cpf_normalizado e idx_cliente_email_normalizado):
+    // o parametro e normalizado como na gravacao, portanto pontuacao e maiusculas nao importam
+    default Cliente findByCpf(String cpf) {
+        return findByCpfNormalizado(Normalizacao.digitos(cpf));
+    }
 
-    @Query("SELECT c FROM Cliente c WHERE upper(c.cpf) = upper(:cpf)")
-    Boolean existeCPF(@Param("cpf") String cpf);    
+    default Boolean existeCPF(String cpf) {
+        return existeCpfNormalizado(Normalizacao.digitos(cpf));
+    }
 
-    @Query("SELECT c FROM Cliente c WHERE upper(c.email) = upper(:email)")
-    Cliente findByEmail(@Param("email") String email);
+    default Cliente findByEmail(String email) {
+        return findByEmailNormalizado(Normalizacao.email(email));
+    }
 
+    @Query("SELECT c FROM Cliente c WHERE c.cpfNormalizado = :cpf")
+    Cliente findByCpfNormalizado(@Param("cpf") String cpf);
+
+    @Query("SELECT c FROM Cliente c WHERE c.cpfNormalizado = :cpf")
+    Boolean existeCpfNormalizado(@Param("cpf") String cpf);
+
+    @Query("SELECT c FROM Cliente c WHERE c.emailNormalizado = :email")
+    Cliente findByEmailNormalizado(@Param("email") String email);
+
+    // Busca por trecho do nome: nao usa indice
     @Query("SELECT c FROM Cliente c WHERE upper(c.nome) like concat('%', upper(:nome), '%')")
     Cliente findByNome(@Param("nome") String nome);
+
+    // Recebem e devolvem chaves ja normalizadas (Normalizacao.digitos / Normalizacao.email)
+    @Query("SELECT c.cpfNormalizado FROM Cliente c WHERE c.cpfNormalizado IN :cpfs")
+    List<String> findCpfsCadastrados(@Param("cpfs") Collection<String> cpfs);
+
+    @Query("SELECT c.emailNormalizado FROM Cliente c WHERE c.emailNormalizado IN :emails")
+    List<String> findEmailsCadastrados(@Param("emails") Collection<String> emails);
+
+    <T> List<T> findByOrderByIdAsc(Limit limit, Class<T> tipo);
+
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(long id, Limit limit, Class<T> tipo);
  
 }
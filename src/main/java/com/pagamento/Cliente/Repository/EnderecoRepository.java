@@ -1,6 +1,7 @@
 package com.pagamento.Cliente.Repository;
 
 import com.pagamento.Cliente.Model.Endereco;
+import com.pagamento.Cliente.Utils.Normalizacao;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,7 +10,12 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface EnderecoRepository extends JpaRepository<Endereco, Long>  {
 
-    @Query("SELECT e FROM Endereco e WHERE upper(e.cep) = upper(:cep)")
-    Endereco findByCep(@Param("cep") String cep);    
+    // Busca pela chave normalizada (indice idx_endereco_cep_normalizado): "01001-000" e "01001000" sao o mesmo CEP
+    default Endereco findByCep(String cep) {
+        return findByCepNormalizado(Normalizacao.digitos(cep));
+    }
+
+    @Query("SELECT e FROM Endereco e WHERE e.cepNormalizado = :cep")
+    Endereco findByCepNormalizado(@Param("cep") String cep);
     
 }
@@ -1,32 +1,49 @@
 package com.pagamento.Cliente.Service;
 
 import com.pagamento.Cliente.DTO.ClienteDTO;
+import com.pagamento.Cliente.DTO.ClienteResumo;
+import com.pagamento.Cliente.DTO.PaginaClientesDto;
 import com.pagamento.Exception.ResourceNotFoundException;
 import com.pagamento.Exception.ServiceException;
 import com.pagamento.Cliente.Model.Cliente;
 import com.pagamento.Cliente.Model.Endereco;
 import com.pagamento.Usuario.Model.Usuario;
+import com.pagamento.Cliente.Repository.ClienteProjecaoRepository;
 import com.pagamento.Cliente.Repository.ClienteRepository;
 import com.pagamento.Cliente.Repository.EnderecoRepository;
 import com.pagamento.Cliente.Utils.CPFValidator;
 import com.pagamento.Usuario.Repository.UserRepository;
+import com.pagamento.Config.LeituraReplica;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ClienteService {
 
     private final ClienteRepository ClienteRepository;
+    private final ClienteProjecaoRepository clienteProjecaoRepository;
     private final EnderecoRepository EnderecoRepository;
     private final UserRepository UserRepository;
     private final CPFValidator cpfValidator;
+    private final EntityManager entityManager;
 
-    public ClienteService(ClienteRepository ClienteRepository, EnderecoRepository EnderecoRepository, UserRepository UserRepository, CPFValidator cpfValidator) {
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int tamanhoLote;
+
+    public ClienteService(ClienteRepository ClienteRepository, ClienteProjecaoRepository clienteProjecaoRepository, EnderecoRepository EnderecoRepository, UserRepository UserRepository, CPFValidator cpfValidator, EntityManager entityManager) {
         this.ClienteRepository =ClienteRepository;
+        this.clienteProjecaoRepository = clienteProjecaoRepository;
         this.EnderecoRepository = EnderecoRepository;
         this.UserRepository = UserRepository;
         this.cpfValidator = cpfValidator;
+        this.entityManager = entityManager;
     }
 
     public ClienteDTO criarCliente(ClienteDTO clienteDTO) throws ServiceException, ResourceNotFoundException {
@@ -52,6 +69,30 @@ public class ClienteService {
         return toDTO(cliente);
     }
 
+    // Cadastro em massa: enderecos e usuarios ainda sem id sao inseridos junto com o cliente. Os ids vem das
+    // sequences em blocos de 50 e os INSERTs saem em batches de hibernate.jdbc.batch_size, ordenados por tabela;
+    // o contexto de persistencia e esvaziado a cada lote, entao a memoria nao cresce com o tamanho da lista
+    @Transactional
+    public List<Cliente> salvarEmLotes(List<Cliente> clientes) {
+        for (int i = 0; i < clientes.size(); i++) {
+            Cliente cliente = clientes.get(i);
+            if (cliente.getEndereco() != null && cliente.getEndereco().getId() == 0) {
+                entityManager.persist(cliente.getEndereco());
+            }
+            if (cliente.getUsuario() != null && cliente.getUsuario().getId() == null) {
+                entityManager.persist(cliente.getUsuario());
+            }
+            entityManager.persist(cliente);
+            if ((i + 1) % tamanhoLote == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return clientes;
+    }
+
     public List<Cliente> buscarClientes() throws ServiceException {
         List<Cliente> cliente = ClienteRepository.findAll();
         if (cliente.isEmpty()) {
@@ -60,6 +101,33 @@ public class ClienteService {
         return cliente;
     }
 
+    // Pagina por id (keyset); sem fields usa a projecao ClienteResumo, com fields seleciona somente as colunas pedidas
+    @LeituraReplica
+    @Transactional(readOnly = true)
+    public PaginaClientesDto listarClientes(Long cursor, int tamanho, List<String> campos) {
+        Limit limite = Limit.of(tamanho + 1);
+        List<?> clientes;
+        List<Long> ids = new ArrayList<>();
+
+        if (campos == null || campos.isEmpty()) {
+            List<ClienteResumo> resumos = cursor == null
+                    ? ClienteRepository.findByOrderByIdAsc(limite, ClienteResumo.class)
+                    : ClienteRepository.findByIdGreaterThanOrderByIdAsc(cursor, limite, ClienteResumo.class);
+            resumos.forEach(c -> ids.add(c.getId()));
+            clientes = resumos;
+        } else {
+            List<Map<String, Object>> linhas = clienteProjecaoRepository.buscarCampos(
+                    campos, cursor, tamanho + 1);
+            linhas.forEach(c -> ids.add((Long) c.get("id")));
+            clientes = linhas;
+        }
+
+        if (clientes.size() <= tamanho) {
+            return new PaginaClientesDto(clientes, null);
+        }
+        return new PaginaClientesDto(clientes.subList(0, tamanho), ids.get(tamanho - 1));
+    }
+
     public Cliente buscarCliente(long id) throws ServiceException {
         Cliente cliente = ClienteRepository.findById(id)
                 .orElseThrow(() -> new ServiceException("Cliente não encontrado para este id: " + id));
@@ -0,0 +1,26 @@
+package com.pagamento.Cliente.Service;
+
+public enum FormatoImportacao {
+
+    NDJSON("ndjson"),
+    CSV("csv");
+
+    private final String extensao;
+
+    FormatoImportacao(String extensao) {
+        this.extensao = extensao;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    public static FormatoImportacao de(String formato) {
+        for (FormatoImportacao valor : values()) {
+            if (valor.extensao.equalsIgnoreCase(formato)) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Formato de importação inválido: " + formato);
+    }
+}
@@ -0,0 +1,485 @@
+package com.pagamento.Cliente.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Cliente.DTO.ClienteImportacaoDto;
+import com.pagamento.Cliente.DTO.ErroImportacaoDto;
+import com.pagamento.Cliente.DTO.ResumoImportacaoDto;
+import com.pagamento.Cliente.Model.Cliente;
+import com.pagamento.Cliente.Model.Endereco;
+import com.pagamento.Cliente.Repository.ClienteRepository;
+import com.pagamento.Cliente.Utils.CPFValidator;
+import com.pagamento.Cliente.Utils.Normalizacao;
+import com.pagamento.Exception.ServiceException;
+import com.pagamento.Usuario.Model.Usuario;
+import com.pagamento.Usuario.Repository.UserRepository;
+import com.pagamento.Usuario.Security.ExecutorCredenciais;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importacao em massa de clientes (com endereco e usuario) a partir de CSV ou NDJSON.
+ *
+ * A entrada e lida registro a registro e processada em blocos de cliente.importacao.tamanho-bloco
+ * registros: cada bloco tem os CPFs validados de uma vez, os duplicados conferidos com uma consulta IN
+ * por coluna, as senhas codificadas no pool de credenciais e os registros validos gravados em uma
+ * transacao propria com INSERTs em batch. So o bloco atual fica em memoria, qualquer que seja o tamanho
+ * do arquivo. O relatorio (NDJSON) traz uma linha por registro recusado, identificado pela linha em que
+ * comeca, e, por ultimo, o resumo.
+ */
+@Service
+public class ImportacaoClienteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoClienteService.class);
+
+    static final List<String> COLUNAS_CSV = List.of(
+            "nome", "email", "cpf", "nascimento", "rua", "numero", "cep", "complemento", "username", "password");
+
+    // Um campo entre aspas pode conter quebras de linha; aspas nunca fechadas nao levam o resto do arquivo
+    // para a memoria: o registro e recusado ao passar deste tamanho
+    static final int TAMANHO_MAXIMO_REGISTRO_CSV = 64 * 1024;
+
+    private final ClienteService clienteService;
+    private final ClienteRepository clienteRepository;
+    private final UserRepository userRepository;
+    private final CPFValidator cpfValidator;
+    private final Validator validator;
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorCredenciais executorCredenciais;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cliente.importacao.tamanho-bloco}")
+    private int tamanhoBloco;
+
+    public ImportacaoClienteService(ClienteService clienteService, ClienteRepository clienteRepository,
+                                    UserRepository userRepository, CPFValidator cpfValidator, Validator validator,
+                                    PasswordEncoder passwordEncoder, ExecutorCredenciais executorCredenciais,
+                                    ObjectMapper objectMapper) {
+        this.clienteService = clienteService;
+        this.clienteRepository = clienteRepository;
+        this.userRepository = userRepository;
+        this.cpfValidator = cpfValidator;
+        this.validator = validator;
+        this.passwordEncoder = passwordEncoder;
+        this.executorCredenciais = executorCredenciais;
+        this.objectMapper = objectMapper;
+    }
+
+    public ResumoImportacaoDto importar(InputStream entrada, FormatoImportacao formato, OutputStream saida) throws IOException {
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        Writer relatorio = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+
+        long numeroLinha = 0;
+        Map<String, Integer> colunas = null;
+        if (formato == FormatoImportacao.CSV) {
+            numeroLinha++;
+            try {
+                colunas = lerCabecalho(leitor.readLine());
+            } catch (IllegalArgumentException e) {
+                // Sem cabecalho valido nenhuma linha pode ser lida: o relatorio traz so o erro e o resumo vazio
+                escrever(relatorio, new ErroImportacaoDto(numeroLinha, e.getMessage()));
+                return concluir(relatorio, new ResumoImportacaoDto(0, 0, 0));
+            }
+        }
+
+        long total = 0;
+        long importados = 0;
+        List<Linha> bloco = new ArrayList<>(tamanhoBloco);
+        String texto;
+        while ((texto = leitor.readLine()) != null) {
+            numeroLinha++;
+            if (texto.isBlank()) {
+                continue;
+            }
+            if (formato == FormatoImportacao.CSV) {
+                long inicio = numeroLinha;
+                boolean aspasAbertas = aspasImpares(texto);
+                if (aspasAbertas) {
+                    StringBuilder registro = new StringBuilder(texto);
+                    String continuacao;
+                    while (aspasAbertas && registro.length() <= TAMANHO_MAXIMO_REGISTRO_CSV
+                            && (continuacao = leitor.readLine()) != null) {
+                        numeroLinha++;
+                        registro.append('\n').append(continuacao);
+                        aspasAbertas ^= aspasImpares(continuacao);
+                    }
+                    texto = registro.toString();
+                }
+                bloco.add(aspasAbertas ? Linha.comErro(inicio, "Campo entre aspas não fechado")
+                        : lerCsv(inicio, texto, colunas));
+            } else {
+                bloco.add(lerNdjson(numeroLinha, texto));
+            }
+            total++;
+            if (bloco.size() == tamanhoBloco) {
+                importados += processarBloco(bloco, relatorio);
+                bloco.clear();
+            }
+        }
+        if (!bloco.isEmpty()) {
+            importados += processarBloco(bloco, relatorio);
+        }
+
+        return concluir(relatorio, new ResumoImportacaoDto(total, importados, total - importados));
+    }
+
+    private ResumoImportacaoDto concluir(Writer relatorio, ResumoImportacaoDto resumo) throws IOException {
+        escrever(relatorio, resumo);
+        relatorio.flush();
+        return resumo;
+    }
+
+    private void escrever(Writer relatorio, Object linha) throws IOException {
+        relatorio.write(objectMapper.writeValueAsString(linha));
+        relatorio.write('\n');
+    }
+
+    private int processarBloco(List<Linha> bloco, Writer relatorio) throws IOException {
+        Map<Long, String> erros = new TreeMap<>();
+        List<Linha> candidatas = new ArrayList<>(bloco.size());
+        for (Linha linha : bloco) {
+            if (linha.erro != null) {
+                erros.put(linha.numero, linha.erro);
+            } else {
+                candidatas.add(linha);
+            }
+        }
+
+        // CPFs do bloco validados em uma unica chamada, sem alocacao por CPF
+        boolean[] cpfsValidos = cpfValidator.validarCPFs(
+                candidatas.stream().map(l -> l.dados.cpf()).toArray(CharSequence[]::new));
+
+        // Duplicados: no proprio bloco e no banco (blocos anteriores ja estao gravados), uma consulta por coluna
+        Set<String> cpfsCadastrados = new HashSet<>(clienteRepository.findCpfsCadastrados(
+                valores(candidatas, dados -> Normalizacao.digitos(dados.cpf()))));
+        Set<String> emailsCadastrados = new HashSet<>(clienteRepository.findEmailsCadastrados(
+                valores(candidatas, dados -> Normalizacao.email(dados.email()))));
+        Set<String> usernamesCadastrados = new HashSet<>(userRepository.findUsernamesCadastrados(
+                valores(candidatas, ClienteImportacaoDto::username)));
+
+        List<Linha> validas = new ArrayList<>(candidatas.size());
+        for (int i = 0; i < candidatas.size(); i++) {
+            Linha linha = candidatas.get(i);
+            String erro = !cpfsValidos[i] ? "CPF inválido" : validar(linha.cliente);
+            if (erro == null) {
+                if (!cpfsCadastrados.add(Normalizacao.digitos(linha.dados.cpf()))) {
+                    erro = "CPF já cadastrado: " + linha.dados.cpf();
+                } else if (!emailsCadastrados.add(Normalizacao.email(linha.dados.email()))) {
+                    erro = "E-mail já cadastrado: " + linha.dados.email();
+                } else if (!usernamesCadastrados.add(linha.dados.username())) {
+                    erro = "Usuário já cadastrado: " + linha.dados.username();
+                }
+            }
+            if (erro == null) {
+                validas.add(linha);
+            } else {
+                erros.put(linha.numero, erro);
+            }
+        }
+
+        int importados = 0;
+        if (!validas.isEmpty()) {
+            codificarSenhas(validas);
+            try {
+                clienteService.salvarEmLotes(validas.stream().map(l -> l.cliente).toList());
+                importados = validas.size();
+            } catch (RuntimeException e) {
+                // A transacao do bloco foi desfeita: nenhuma linha dele foi gravada
+                if (violacaoDeRestricao(e) != null) {
+                    // Outro cadastro gravou um CPF ou e-mail do bloco depois da conferencia: so a linha em
+                    // conflito deve ser recusada
+                    importados = gravarUmAUm(validas, erros);
+                } else {
+                    logger.error("Falha ao gravar o bloco de {} clientes a partir da linha {}",
+                            validas.size(), validas.get(0).numero, e);
+                    for (Linha linha : validas) {
+                        erros.put(linha.numero, "Bloco não gravado");
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<Long, String> erro : erros.entrySet()) {
+            escrever(relatorio, new ErroImportacaoDto(erro.getKey(), erro.getValue()));
+        }
+        relatorio.flush();
+        return importados;
+    }
+
+    private int gravarUmAUm(List<Linha> linhas, Map<Long, String> erros) {
+        int gravadas = 0;
+        for (Linha linha : linhas) {
+            try {
+                clienteService.salvarEmLotes(List.of(linha.novaTentativa()));
+                gravadas++;
+            } catch (RuntimeException e) {
+                ConstraintViolationException violacao = violacaoDeRestricao(e);
+                if (violacao == null) {
+                    logger.error("Falha ao gravar o cliente da linha {}", linha.numero, e);
+                    erros.put(linha.numero, "Cliente não gravado");
+                } else {
+                    erros.put(linha.numero, duplicado(linha, violacao.getConstraintName()));
+                }
+            }
+        }
+        return gravadas;
+    }
+
+    // Os indices unicos de V4__indices_chaves_normalizadas.sql; a mensagem e a mesma da conferencia do bloco
+    private static String duplicado(Linha linha, String restricao) {
+        if ("idx_cliente_cpf_normalizado".equals(restricao)) {
+            return "CPF já cadastrado: " + linha.dados.cpf();
+        }
+        if ("idx_cliente_email_normalizado".equals(restricao)) {
+            return "E-mail já cadastrado: " + linha.dados.email();
+        }
+        return "Cliente não gravado";
+    }
+
+    // Lancada pelo flush do Hibernate, direto ou como causa da excecao traduzida pelo Spring
+    private static ConstraintViolationException violacaoDeRestricao(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacao) {
+                return violacao;
+            }
+        }
+        return null;
+    }
+
+    private String validar(Cliente cliente) {
+        Set<ConstraintViolation<Object>> violacoes = new HashSet<>();
+        violacoes.addAll(validator.validate((Object) cliente));
+        violacoes.addAll(validator.validate((Object) cliente.getEndereco()));
+        if (!violacoes.isEmpty()) {
+            return violacoes.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        Usuario usuario = cliente.getUsuario();
+        if (usuario.getUsername() == null || usuario.getUsername().isBlank()
+                || usuario.getPassword() == null || usuario.getPassword().isBlank()) {
+            return "Usuário e senha são obrigatórios";
+        }
+        return null;
+    }
+
+    // BCrypt no pool de credenciais com no maximo uma tarefa por thread em andamento: a fila continua
+    // livre para os logins e registros, que sao atendidos entre um hash e outro da importacao
+    private void codificarSenhas(List<Linha> linhas) {
+        int limite = executorCredenciais.getThreads();
+        Deque<Future<?>> pendentes = new ArrayDeque<>(limite);
+        for (Linha linha : linhas) {
+            Usuario usuario = linha.cliente.getUsuario();
+            String senha = usuario.getPassword();
+            Future<?> hash = null;
+            while (hash == null) {
+                if (pendentes.size() >= limite) {
+                    aguardar(pendentes.poll());
+                }
+                try {
+                    hash = executorCredenciais.executar(() -> {
+                        usuario.setPassword(passwordEncoder.encode(senha));
+                        return null;
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Fila ocupada por logins: espera uma tarefa propria terminar, ou um instante, e tenta de novo
+                    if (pendentes.isEmpty()) {
+                        pausar();
+                    } else {
+                        aguardar(pendentes.poll());
+                    }
+                }
+            }
+            pendentes.add(hash);
+        }
+        while (!pendentes.isEmpty()) {
+            aguardar(pendentes.poll());
+        }
+    }
+
+    private static void aguardar(Future<?> tarefa) {
+        try {
+            tarefa.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Importação interrompida");
+        } catch (ExecutionException e) {
+            throw new ServiceException("Erro ao codificar a senha: " + e.getCause().getMessage());
+        }
+    }
+
+    private static void pausar() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Importação interrompida");
+        }
+    }
+
+    private static Set<String> valores(List<Linha> linhas, Function<ClienteImportacaoDto, String> campo) {
+        Set<String> valores = new HashSet<>();
+        for (Linha linha : linhas) {
+            String valor = campo.apply(linha.dados);
+            if (valor != null) {
+                valores.add(valor);
+            }
+        }
+        return valores;
+    }
+
+    private Linha lerNdjson(long numero, String texto) {
+        try {
+            return Linha.de(numero, objectMapper.readValue(texto, ClienteImportacaoDto.class));
+        } catch (JsonProcessingException e) {
+            return Linha.comErro(numero, "JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Map<String, Integer> lerCabecalho(String cabecalho) {
+        if (cabecalho == null) {
+            throw new IllegalArgumentException("Arquivo CSV vazio");
+        }
+        List<String> nomes = separarCsv(cabecalho);
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < nomes.size(); i++) {
+            colunas.put(nomes.get(i).trim().toLowerCase(), i);
+        }
+        for (String coluna : COLUNAS_CSV) {
+            if (!colunas.containsKey(coluna)) {
+                throw new IllegalArgumentException("Coluna obrigatória ausente no CSV: " + coluna);
+            }
+        }
+        return colunas;
+    }
+
+    private static Linha lerCsv(long numero, String texto, Map<String, Integer> colunas) {
+        List<String> campos = separarCsv(texto);
+        if (campos.size() < colunas.size()) {
+            return Linha.comErro(numero, "Esperadas " + colunas.size() + " colunas, encontradas " + campos.size());
+        }
+        LocalDate nascimento;
+        try {
+            String data = campos.get(colunas.get("nascimento"));
+            nascimento = data.isBlank() ? null : LocalDate.parse(data);
+        } catch (DateTimeParseException e) {
+            return Linha.comErro(numero, "Data de nascimento inválida, use AAAA-MM-DD");
+        }
+        return Linha.de(numero, new ClienteImportacaoDto(
+                campos.get(colunas.get("nome")),
+                campos.get(colunas.get("email")),
+                campos.get(colunas.get("cpf")),
+                nascimento,
+                campos.get(colunas.get("rua")),
+                campos.get(colunas.get("numero")),
+                campos.get(colunas.get("cep")),
+                campos.get(colunas.get("complemento")),
+                campos.get(colunas.get("username")),
+                campos.get(colunas.get("password"))));
+    }
+
+    // Aspas duplicadas ("") contam duas vezes: uma quantidade impar abre ou fecha um campo entre aspas
+    private static boolean aspasImpares(String texto) {
+        boolean impar = false;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) == '"') {
+                impar = !impar;
+            }
+        }
+        return impar;
+    }
+
+    // Separador virgula; campos entre aspas podem conter virgulas, quebras de linha e aspas duplicadas ("")
+    static List<String> separarCsv(String texto) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private static final class Linha {
+
+        private final long numero;
+        private final ClienteImportacaoDto dados;
+        private final Cliente cliente;
+        private final String erro;
+
+        private Linha(long numero, ClienteImportacaoDto dados, Cliente cliente, String erro) {
+            this.numero = numero;
+            this.dados = dados;
+            this.cliente = cliente;
+            this.erro = erro;
+        }
+
+        static Linha de(long numero, ClienteImportacaoDto dados) {
+            return new Linha(numero, dados, novoCliente(dados, dados.password()), null);
+        }
+
+        // Depois do rollback do bloco as entidades ja tem ids das sequences que nao foram gravados: a nova
+        // tentativa parte de instancias novas, com a senha ja codificada
+        Cliente novaTentativa() {
+            return novoCliente(dados, cliente.getUsuario().getPassword());
+        }
+
+        private static Cliente novoCliente(ClienteImportacaoDto dados, String senha) {
+            Endereco endereco = new Endereco(0, dados.rua(), dados.numero(), dados.cep(), dados.complemento(), null);
+            Usuario usuario = new Usuario(null, dados.username(), senha);
+            return new Cliente(dados.nome(), dados.email(), dados.cpf(), dados.nascimento(), endereco, usuario);
+        }
+
+        static Linha comErro(long numero, String erro) {
+            return new Linha(numero, null, null, erro);
+        }
+    }
+}
@@ -2,37 +2,80 @@ package com.pagamento.Cliente.Utils;
 
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Component
 public class CPFValidator {
 
+    // Digito verificador de cada soma possivel: a maior e a do segundo digito, 9 * (11 + 10 + ... + 2) = 585.
+    // Evita as duas divisoes por 11 a cada CPF
+    private static final byte[] DIGITO_VERIFICADOR = new byte[586];
+
+    static {
+        for (int soma = 0; soma < DIGITO_VERIFICADOR.length; soma++) {
+            int resto = soma % 11;
+            DIGITO_VERIFICADOR[soma] = (byte) ((resto < 2) ? 0 : (11 - resto));
+        }
+    }
+
     public boolean validarCPF(String cpf) {
+        return validarCPF((CharSequence) cpf);
+    }
+
+    // Uma unica passada sobre os caracteres, sem regex, substring ou arrays: nao aloca memoria
+    public boolean validarCPF(CharSequence cpf) {
         // Verifica se o CPF possui 11 dígitos e se é composto apenas por números
-        if (cpf == null || !Pattern.matches("\\d{11}", cpf)) {
+        if (cpf == null || cpf.length() != 11) {
             return false;
         }
 
-        // Calcula os dígitos verificadores
-        int[] multiplicadoresPrimeiroDigito = {10, 9, 8, 7, 6, 5, 4, 3, 2};
-        int[] multiplicadoresSegundoDigito = {11, 10, 9, 8, 7, 6, 5, 4, 3, 2};
-
-        if (calcularDigitoVerificador(cpf.substring(0, 9), multiplicadoresPrimeiroDigito) != Character.getNumericValue(cpf.charAt(9))) {
-            return false;
+        // Pesos 10..2 para o primeiro digito: acumulando a soma parcial dos digitos a cada posicao, o digito i
+        // entra 9 - i vezes, e somando os digitos mais uma vez chega-se aos pesos sem nenhuma multiplicacao.
+        // Os pesos do segundo (11..3) sao os mesmos mais 1, portanto a segunda soma e a primeira mais a soma
+        // simples dos digitos
+        int soma = 0;
+        int somaDigitos = 0;
+        for (int i = 0; i < 9; i++) {
+            int digito = cpf.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return false;
+            }
+            somaDigitos += digito;
+            soma += somaDigitos;
         }
-        if (calcularDigitoVerificador(cpf.substring(0, 10), multiplicadoresSegundoDigito) != Character.getNumericValue(cpf.charAt(10))) {
+        soma += somaDigitos;
+
+        int primeiroDigito = cpf.charAt(9) - '0';
+        int segundoDigito = cpf.charAt(10) - '0';
+        if (primeiroDigito < 0 || primeiroDigito > 9 || segundoDigito < 0 || segundoDigito > 9) {
             return false;
         }
 
-        return true;
+        return DIGITO_VERIFICADOR[soma] == primeiroDigito
+                && DIGITO_VERIFICADOR[soma + somaDigitos + primeiroDigito * 2] == segundoDigito;
     }
 
-    private int calcularDigitoVerificador(String cpfParcial, int[] multiplicadores) {
-        int total = 0;
-        for (int i = 0; i < cpfParcial.length(); i++) {
-            total += Character.getNumericValue(cpfParcial.charAt(i)) * multiplicadores[i];
+    // Validacao em massa para importacoes: o resultado i corresponde ao CPF i
+    public boolean[] validarCPFs(CharSequence[] cpfs) {
+        boolean[] resultado = new boolean[cpfs.length];
+        for (int i = 0; i < cpfs.length; i++) {
+            resultado[i] = validarCPF(cpfs[i]);
         }
-        int resto = total % 11;
-        return (resto < 2) ? 0 : (11 - resto);
+        return resultado;
+    }
+
+    // Validacao em massa de um stream (por exemplo as linhas de um arquivo): cada CPF vai para o consumidor do
+    // seu resultado conforme e lido, sem acumular a entrada em memoria. Com stream paralelo os consumidores
+    // sao chamados de varias threads
+    public <T extends CharSequence> void separarCPFs(Stream<T> cpfs, Consumer<? super T> validos,
+                                                     Consumer<? super T> invalidos) {
+        cpfs.forEach(cpf -> {
+            if (validarCPF(cpf)) {
+                validos.accept(cpf);
+            } else {
+                invalidos.accept(cpf);
+            }
+        });
     }
-}
\ No newline at end of file
+}
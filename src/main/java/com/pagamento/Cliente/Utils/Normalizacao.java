@@ -0,0 +1,38 @@
+package com.pagamento.Cliente.Utils;
+
+import java.util.Locale;
+
+// Chaves de busca gravadas junto com o valor original (cpf_normalizado, email_normalizado, cep_normalizado);
+// as consultas normalizam o parametro da mesma forma e comparam direto com a coluna indexada
+public final class Normalizacao {
+
+    private Normalizacao() {
+    }
+
+    // Somente os digitos ASCII: "334.750.780-07" e "33475078007" tem a mesma chave
+    public static String digitos(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        int i = 0;
+        while (i < valor.length() && valor.charAt(i) >= '0' && valor.charAt(i) <= '9') {
+            i++;
+        }
+        if (i == valor.length()) {
+            return valor;
+        }
+        StringBuilder digitos = new StringBuilder(valor.length()).append(valor, 0, i);
+        for (; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos.append(c);
+            }
+        }
+        return digitos.toString();
+    }
+
+    // Sem caracteres ate U+0020 nas pontas (String.trim) e em minusculas, como o backfill da V3
+    public static String email(String valor) {
+        return valor == null ? null : valor.trim().toLowerCase(Locale.ROOT);
+    }
+}
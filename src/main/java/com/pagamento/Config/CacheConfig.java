@@ -0,0 +1,63 @@
+package com.pagamento.Config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collections;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CARTOES = "cartoes";
+    public static final String IDEMPOTENCIA = "idempotencia";
+    public static final String USUARIOS = "usuarios";
+
+    @Value("${cache.cartoes.tamanho-maximo}")
+    private long cartoesTamanhoMaximo;
+
+    @Value("${cache.cartoes.ttl}")
+    private Duration cartoesTtl;
+
+    @Value("${cache.idempotencia.tamanho-maximo}")
+    private long idempotenciaTamanhoMaximo;
+
+    @Value("${cache.idempotencia.ttl}")
+    private Duration idempotenciaTtl;
+
+    @Value("${cache.usuarios.tamanho-maximo}")
+    private long usuariosTamanhoMaximo;
+
+    @Value("${cache.usuarios.ttl}")
+    private Duration usuariosTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Somente os caches registrados abaixo existem, sem criacao dinamica de caches sem limite
+        cacheManager.setCacheNames(Collections.emptyList());
+        // recordStats alimenta as metricas cache.gets / cache.evictions expostas pelo actuator
+        cacheManager.registerCustomCache(CARTOES, Caffeine.newBuilder()
+                .maximumSize(cartoesTamanhoMaximo)
+                .expireAfterWrite(cartoesTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(IDEMPOTENCIA, Caffeine.newBuilder()
+                .maximumSize(idempotenciaTamanhoMaximo)
+                .expireAfterWrite(idempotenciaTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USUARIOS, Caffeine.newBuilder()
+                .maximumSize(usuariosTamanhoMaximo)
+                .expireAfterWrite(usuariosTtl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
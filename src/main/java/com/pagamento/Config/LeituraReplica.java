@@ -0,0 +1,18 @@
+package com.pagamento.Config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca as leituras que podem ser atendidas pela replica (listagens e exportacoes), que toleram alguns
+ * segundos de atraso. Vale apenas dentro de uma transacao readOnly; as demais leituras, inclusive as
+ * readOnly implicitas dos repositorios Spring Data, continuam no primario.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LeituraReplica {
+}
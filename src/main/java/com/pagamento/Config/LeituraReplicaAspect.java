@@ -0,0 +1,27 @@
+package com.pagamento.Config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+// Sinaliza para o RoteamentoDataSource que a thread esta dentro de um metodo @LeituraReplica
+@Aspect
+public class LeituraReplicaAspect {
+
+    private static final ThreadLocal<Boolean> ATIVA = ThreadLocal.withInitial(() -> false);
+
+    public static boolean isAtiva() {
+        return ATIVA.get();
+    }
+
+    @Around("@annotation(com.pagamento.Config.LeituraReplica)")
+    public Object marcar(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean anterior = ATIVA.get();
+        ATIVA.set(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ATIVA.set(anterior);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.pagamento.Config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Mede periodicamente o atraso da replica e a retira do roteamento quando ele passa do maximo
+ * configurado ou quando a consulta falha; as leituras voltam para a replica assim que ela se recupera.
+ * Metricas: datasource.replica.atraso (segundos) e datasource.replica.disponivel (1 ou 0).
+ */
+public class MonitorReplica {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonitorReplica.class);
+
+    // Sem WAL pendente a replica esta em dia, mesmo que o primario esteja ocioso ha muito tempo
+    private static final String ATRASO = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double atrasoMaximo;
+    private volatile double atraso;
+    private volatile boolean disponivel;
+
+    public MonitorReplica(DataSource replica, Duration atrasoMaximo, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.atrasoMaximo = atrasoMaximo.toMillis() / 1000.0;
+        Gauge.builder("datasource.replica.atraso", this, m -> m.atraso).baseUnit("seconds").register(meterRegistry);
+        Gauge.builder("datasource.replica.disponivel", this, m -> m.disponivel ? 1 : 0).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.intervalo-verificacao}")
+    public void verificar() {
+        boolean estava = disponivel;
+        try {
+            Double medido = jdbcTemplate.queryForObject(ATRASO, Double.class);
+            atraso = medido == null ? 0 : medido;
+            disponivel = atraso <= atrasoMaximo;
+        } catch (RuntimeException e) {
+            atraso = Double.NaN;
+            disponivel = false;
+        }
+        if (disponivel && !estava) {
+            logger.info("Leituras roteadas para a replica (atraso {}s)", atraso);
+        } else if (estava && !disponivel) {
+            logger.warn("Leituras desviadas para o primario (atraso da replica {}s)", atraso);
+        }
+    }
+
+    public boolean isDisponivel() {
+        return disponivel;
+    }
+}
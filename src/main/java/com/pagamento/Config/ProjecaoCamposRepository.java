@@ -0,0 +1,75 @@
+package com.pagamento.Config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Listagem paginada com os campos escolhidos pelo cliente da API (fields=); o SELECT contem apenas essas colunas.
+// O identificador e o cursor (keyset), por isso sempre faz parte da resposta mesmo que nao tenha sido pedido
+public abstract class ProjecaoCamposRepository<T, C extends Comparable<? super C>> {
+
+    private final EntityManager entityManager;
+    private final Class<T> entidade;
+    private final String identificador;
+    private final Set<String> camposPermitidos;
+
+    protected ProjecaoCamposRepository(EntityManager entityManager, Class<T> entidade, String identificador,
+                                       Set<String> camposPermitidos) {
+        this.entityManager = entityManager;
+        this.entidade = entidade;
+        this.identificador = identificador;
+        this.camposPermitidos = camposPermitidos;
+    }
+
+    public List<Map<String, Object>> buscarCampos(List<String> campos, C cursor, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> raiz = query.from(entidade);
+
+        List<Selection<?>> selecao = new ArrayList<>();
+        for (String campo : camposComIdentificador(campos)) {
+            selecao.add(raiz.get(campo).alias(campo));
+        }
+        query.multiselect(selecao);
+        if (cursor != null) {
+            query.where(cb.greaterThan(raiz.<C>get(identificador), cursor));
+        }
+        query.orderBy(cb.asc(raiz.get(identificador)));
+
+        List<Tuple> linhas = entityManager.createQuery(query).setMaxResults(limite).getResultList();
+        List<Map<String, Object>> retorno = new ArrayList<>(linhas.size());
+        for (Tuple linha : linhas) {
+            Map<String, Object> valores = new LinkedHashMap<>();
+            for (TupleElement<?> elemento : linha.getElements()) {
+                valores.put(elemento.getAlias(), linha.get(elemento));
+            }
+            retorno.add(valores);
+        }
+        return retorno;
+    }
+
+    private List<String> camposComIdentificador(List<String> campos) {
+        List<String> selecao = new ArrayList<>();
+        selecao.add(identificador);
+        for (String campo : campos) {
+            String nome = campo.trim();
+            if (!camposPermitidos.contains(nome)) {
+                throw new IllegalArgumentException("Campo inválido: " + nome + ". Permitidos: " + camposPermitidos);
+            }
+            if (!selecao.contains(nome)) {
+                selecao.add(nome);
+            }
+        }
+        return selecao;
+    }
+}
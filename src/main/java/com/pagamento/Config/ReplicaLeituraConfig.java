@@ -0,0 +1,79 @@
+package com.pagamento.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Ativado por spring.datasource.replica.jdbc-url: separa o pool do primario (spring.datasource.*)
+ * do pool da replica (spring.datasource.replica.*) e expoe como DataSource principal um roteador
+ * entre os dois. Os dois pools sao beans HikariDataSource, entao o actuator publica
+ * hikaricp.connections.* para cada um (tag pool=primario / pool=replica).
+ *
+ * Somente transacoes readOnly de metodos anotados com {@link LeituraReplica} vao para a replica. O readOnly
+ * sozinho nao basta: os repositorios Spring Data abrem transacoes readOnly implicitas em findById e nas
+ * consultas derivadas, usadas tambem por leituras que precisam ver a ultima escrita (idempotencia,
+ * verificacoes de duplicidade, autenticacao).
+ *
+ * O LazyConnectionDataSourceProxy adia a escolha do pool ate o primeiro comando SQL, quando a
+ * transacao ja esta marcada como readOnly; sem ele a conexao seria obtida no inicio da transacao.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.datasource.replica.jdbc-url")
+public class ReplicaLeituraConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties) {
+        HikariDataSource primario = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primario.setPoolName(RoteamentoDataSource.PRIMARIO);
+        return primario;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica")
+    public HikariDataSource dataSourceReplica() {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName(RoteamentoDataSource.REPLICA);
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public MonitorReplica monitorReplica(@Qualifier("dataSourceReplica") DataSource replica,
+                                         @Value("${spring.datasource.replica.atraso-maximo}") Duration atrasoMaximo,
+                                         MeterRegistry meterRegistry) {
+        MonitorReplica monitor = new MonitorReplica(replica, atrasoMaximo, meterRegistry);
+        monitor.verificar();
+        return monitor;
+    }
+
+    @Bean
+    public LeituraReplicaAspect leituraReplicaAspect() {
+        return new LeituraReplicaAspect();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimario") DataSource primario,
+                                 @Qualifier("dataSourceReplica") DataSource replica,
+                                 MonitorReplica monitorReplica) {
+        RoteamentoDataSource roteamento = new RoteamentoDataSource(monitorReplica);
+        roteamento.setTargetDataSources(Map.of(RoteamentoDataSource.PRIMARIO, primario, RoteamentoDataSource.REPLICA, replica));
+        roteamento.setDefaultTargetDataSource(primario);
+        roteamento.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteamento);
+    }
+}
@@ -0,0 +1,26 @@
+package com.pagamento.Config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Transacoes readOnly de metodos @LeituraReplica usam a replica enquanto ela estiver em dia; todo o resto usa o primario
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARIO = "primario";
+    public static final String REPLICA = "replica";
+
+    private final MonitorReplica monitorReplica;
+
+    public RoteamentoDataSource(MonitorReplica monitorReplica) {
+        this.monitorReplica = monitorReplica;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (LeituraReplicaAspect.isAtiva() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && monitorReplica.isDisponivel()) {
+            return REPLICA;
+        }
+        return PRIMARIO;
+    }
+}
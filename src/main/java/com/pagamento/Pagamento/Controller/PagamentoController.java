@@ -1,17 +1,32 @@
 package com.pagamento.Pagamento.Controller;
 
-import com.pagamento.Pagamento.DTO.PagamentoPorClienteDto;
+import com.pagamento.Pagamento.DTO.PaginaPagamentosDto;
+import com.pagamento.Pagamento.DTO.ResultadoPagamentoLoteDto;
 import com.pagamento.Exception.LimiteCartaoException;
 import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Service.FormatoExportacao;
+import com.pagamento.Pagamento.Service.IdempotenciaService;
+import com.pagamento.Pagamento.Service.LimitadorTaxaPagamento;
 import com.pagamento.Pagamento.Service.PagamentoService;
+import com.pagamento.Pagamento.Utils.PeriodoPagamentos;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/pagamentos")
@@ -21,13 +36,56 @@ public class PagamentoController {
     @Autowired
     private final PagamentoService pagamentoService;
 
-    public PagamentoController(PagamentoService pagamentoService) {
+    private final IdempotenciaService idempotenciaService;
+
+    private final LimitadorTaxaPagamento limitadorTaxaPagamento;
+
+    @Value("${pagamento.lote.tamanho-maximo}")
+    private int tamanhoMaximoLote;
+
+    @Value("${pagamento.listagem.tamanho-maximo-pagina}")
+    private int tamanhoMaximoPagina;
+
+    @Value("${pagamento.listagem.meses-recentes}")
+    private int mesesRecentes;
+
+    @Value("${pagamento.exportacao.tempo-maximo}")
+    private Duration tempoMaximoExportacao;
+
+    public PagamentoController(PagamentoService pagamentoService, IdempotenciaService idempotenciaService,
+                               LimitadorTaxaPagamento limitadorTaxaPagamento) {
         this.pagamentoService = pagamentoService;
+        this.idempotenciaService = idempotenciaService;
+        this.limitadorTaxaPagamento = limitadorTaxaPagamento;
     }
 
     @PostMapping
     @Operation(summary = "Efetua a inclusão de um novo Pagamento", method = "POST")
-    public ResponseEntity<?> cadastrarPagamento(@Valid @RequestBody Pagamento pagamento) {
+    public ResponseEntity<?> cadastrarPagamento(@Valid @RequestBody Pagamento pagamento,
+                                                @RequestHeader(value = IdempotenciaService.CABECALHO, required = false) String chaveIdempotencia) {
+        if (chaveIdempotencia == null || chaveIdempotencia.isBlank()) {
+            return processarPagamento(pagamento);
+        }
+        // Um reenvio e respondido com o resultado ja registrado, sem consumir o limite de taxa
+        String impressao = idempotenciaService.impressao(chamador(), pagamento.getCpf(), pagamento.getNumero(),
+                pagamento.getData_validade(), pagamento.getCvv(), pagamento.getValor());
+        return idempotenciaService.executar(chaveIdempotencia, impressao, () -> processarPagamento(pagamento));
+    }
+
+    private static String chamador() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacao == null ? "" : autenticacao.getName();
+    }
+
+    private ResponseEntity<?> processarPagamento(Pagamento pagamento) {
+        // Recusado antes de qualquer acesso ao banco
+        long espera = limitadorTaxaPagamento.consumir(pagamento.getCpf(), pagamento.getNumero());
+        if (espera > 0) {
+            long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999L));
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(segundos))
+                    .body("Limite de requisições excedido, tente novamente em " + segundos + "s");
+        }
         try {
             var pagamentoNovo = pagamentoService.cadastrarPagamento(pagamento);
             return ResponseEntity.status(HttpStatus.OK).body(pagamentoNovo);
@@ -40,16 +98,73 @@ public class PagamentoController {
         }
     }
 
+    @PostMapping("/lote")
+    @Operation(summary = "Efetua a inclusão de um lote de Pagamentos, com um resultado por item", method = "POST")
+    public ResponseEntity<?> cadastrarPagamentosEmLote(@RequestBody List<Pagamento> pagamentos) {
+        if (pagamentos.isEmpty() || pagamentos.size() > tamanhoMaximoLote) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("O lote deve conter entre 1 e " + tamanhoMaximoLote + " pagamentos");
+        }
+        try {
+            List<ResultadoPagamentoLoteDto> resultados = pagamentoService.cadastrarPagamentosEmLote(pagamentos);
+            return ResponseEntity.status(HttpStatus.OK).body(resultados);
+        } catch (RuntimeException ex) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex);
+        }
+    }
+
     @GetMapping("/cliente/{cpf}")
-    @Operation(summary = "Lista Pagamentos de um determinado cliente", method = "GET")
-    public ResponseEntity<?> listaPagamentosPorCliente(@PathVariable String cpf) {
+    @Operation(summary = "Lista Pagamentos de um determinado cliente, paginados por cursor; sem a data inicial, "
+            + "apenas os dos meses mais recentes", method = "GET")
+    public ResponseEntity<?> listaPagamentosPorCliente(@PathVariable String cpf,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "50") int tamanho) {
+        if (tamanho < 1 || tamanho > tamanhoMaximoPagina) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("O tamanho da página deve estar entre 1 e " + tamanhoMaximoPagina);
+        }
         try {
-            List<PagamentoPorClienteDto> pagamentos = pagamentoService.listaPagamentosPorCliente(cpf);
+            // Sem data inicial so as particoes dos ultimos meses sao lidas
+            PeriodoPagamentos periodo = PeriodoPagamentos.de(
+                    desde != null ? desde : PeriodoPagamentos.inicioDosUltimosMeses(mesesRecentes), ate);
+            PaginaPagamentosDto pagamentos = pagamentoService.listaPagamentosPorCliente(cpf, periodo, cursor, tamanho);
             return ResponseEntity.status(HttpStatus.OK).body(pagamentos);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
         } catch (SecurityException ex) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ex);
         } catch (RuntimeException ex) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Internal Server Error");
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/cliente/{cpf}/exportacao")
+    @Operation(summary = "Exporta o histórico de Pagamentos de um cliente em NDJSON ou CSV, inteiro ou de um período",
+            method = "GET")
+    public WebAsyncTask<Void> exportarPagamentosPorCliente(@PathVariable String cpf,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                                           @RequestParam(defaultValue = "ndjson") String formato,
+                                                           HttpServletResponse response) {
+        FormatoExportacao formatoExportacao;
+        PeriodoPagamentos periodo;
+        try {
+            formatoExportacao = FormatoExportacao.de(formato);
+            periodo = PeriodoPagamentos.de(desde, ate);
+        } catch (IllegalArgumentException ex) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return null;
+        }
+        response.setContentType(formatoExportacao.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"pagamentos-" + cpf + "." + formatoExportacao.getExtensao() + "\"");
+        // As linhas sao escritas conforme chegam do banco, sem montar a lista em memoria. O prazo longo vale
+        // so para esta tarefa; as demais requisicoes assincronas seguem o limite padrao do Spring MVC
+        return new WebAsyncTask<>(tempoMaximoExportacao.toMillis(), () -> {
+            pagamentoService.exportarPagamentosPorCliente(cpf, periodo, formatoExportacao, response.getOutputStream());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.pagamento.Pagamento.DTO;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Payload do evento PAGAMENTO_APROVADO; numero traz apenas os 4 ultimos digitos do cartao
+public record PagamentoAprovadoDto(
+        UUID chavePagamento,
+        String cpf,
+        String numero,
+        BigDecimal valor
+) {
+}
@@ -0,0 +1,14 @@
+package com.pagamento.Pagamento.DTO;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public record PagamentoExportacaoDto(
+        UUID chavePagamento,
+        Instant criadoEm,
+        String cpf,
+        String numero,
+        BigDecimal valor
+) {
+}
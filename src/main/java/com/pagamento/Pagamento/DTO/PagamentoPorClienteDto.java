@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Data
 public class PagamentoPorClienteDto {
@@ -12,5 +13,6 @@ public class PagamentoPorClienteDto {
     private String descricao;
     private String metodoPagamento;
     private String status;
+    private Instant criadoEm;
 
 }
\ No newline at end of file
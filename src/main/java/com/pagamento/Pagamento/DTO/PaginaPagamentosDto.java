@@ -0,0 +1,17 @@
+package com.pagamento.Pagamento.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaPagamentosDto {
+
+    private List<PagamentoPorClienteDto> pagamentos;
+    private String proximoCursor;
+
+}
@@ -0,0 +1,19 @@
+package com.pagamento.Pagamento.DTO;
+
+import com.pagamento.Pagamento.Model.StatusPagamento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoPagamentoLoteDto {
+
+    private int indice;
+    private UUID chavePagamento;
+    private StatusPagamento status;
+
+}
@@ -0,0 +1,15 @@
+package com.pagamento.Pagamento.Model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Chave primaria UUID versao 7 gerada na aplicacao antes do INSERT (com.pagamento.Pagamento.Utils.UuidV7)
+@IdGeneratorType(GeradorChaveUuidV7.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ChaveUuidV7 {
+}
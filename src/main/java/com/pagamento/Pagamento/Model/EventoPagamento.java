@@ -0,0 +1,44 @@
+package com.pagamento.Pagamento.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Evento pendente de publicacao (outbox), gravado na mesma transacao do pagamento
+@Entity
+@Table(name = "evento_pagamento")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoPagamento {
+
+    public static final String PAGAMENTO_APROVADO = "PAGAMENTO_APROVADO";
+
+    // Sequence com allocationSize 50: os INSERTs entram no batch JDBC junto com os pagamentos
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_pagamento_seq")
+    @SequenceGenerator(name = "evento_pagamento_seq", sequenceName = "evento_pagamento_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "chave_pagamento", nullable = false)
+    private UUID chavePagamento;
+
+    @Column(name = "tipo", nullable = false, length = 50)
+    private String tipo;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "criado_em", nullable = false)
+    private Instant criadoEm;
+}
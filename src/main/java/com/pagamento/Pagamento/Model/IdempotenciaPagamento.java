@@ -0,0 +1,39 @@
+package com.pagamento.Pagamento.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Resposta original de um POST /api/pagamentos, reenviada quando a mesma Idempotency-Key se repete.
+// A linha e inserida sem status_http ao reservar a chave, antes da autorizacao, e concluida com a resposta.
+@Entity
+@Table(name = "idempotencia_pagamento")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotenciaPagamento {
+
+    @Id
+    @Column(name = "chave", nullable = false, length = 255)
+    private String chave;
+
+    // null enquanto a requisicao original esta em processamento
+    @Column(name = "status_http")
+    private Integer statusHttp;
+
+    @Column(name = "corpo", columnDefinition = "text")
+    private String corpo;
+
+    // HMAC do chamador e da requisicao original: a chave nao pode ser reutilizada com outra requisicao
+    @Column(name = "impressao", nullable = false, length = 64)
+    private String impressao;
+
+    @Column(name = "criado_em", nullable = false)
+    private Instant criadoEm;
+}
@@ -1,8 +1,11 @@
 package com.pagamento.Pagamento.Model;
 
-
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.pagamento.Cartao.Utils.NumeroCartaoMascarado;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
@@ -11,6 +14,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 @Entity
@@ -23,7 +28,7 @@ public class Pagamento {
 
     @Id
     @Column(name = "chave_pagamento", insertable=false, updatable=false)
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @ChaveUuidV7
     private UUID chavePagamento;
 
     @Column(name = "cpf", nullable = false)
@@ -31,17 +36,23 @@ public class Pagamento {
     @Pattern(regexp = "\\d{11}", message = "O CPF deve conter 11 dígitos")
     private String cpf;
 
-    @Column(name = "numero", nullable = false, unique = true)
+    // Referencia ao cartao (fk_pagamento_cartao); um cartao tem quantos pagamentos o limite permitir.
+    // Na resposta, e na copia guardada para reenvio idempotente, sai mascarado
+    @Column(name = "numero", nullable = false)
+    @JsonSerialize(using = NumeroCartaoMascarado.class)
     @NotNull(message = "O número do cartão não pode ser nulo")
     @Pattern(regexp = "\\d{16}", message = "O número do cartão deve conter 16 dígitos")
     private String numero;
 
-    @Column(name = "data_validade", nullable = false)
+    // Validade e CVV chegam na requisicao apenas para a autorizacao: nao sao gravados nem devolvidos
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @NotNull(message = "A data de validade não pode ser nula")
     @Pattern(regexp = "(0[1-9]|1[0-2])/\\d{2}", message = "A data de validade deve estar no formato MM/YY")
     private String data_validade;
 
-    @Column(name = "cvv", nullable = false)
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @NotNull(message = "O CVV não pode ser nulo")
     @Pattern(regexp = "\\d{3}", message = "O CVV deve conter 3 dígitos")
     private String cvv;
@@ -49,6 +60,19 @@ public class Pagamento {
     @Column(name = "valor", nullable = false)
     @NotNull(message = "O valor não pode ser nulo")
     @DecimalMin(value = "0.0", inclusive = false, message = "O valor deve ser maior que zero")
+    @Digits(integer = 15, fraction = 2, message = "O valor deve ter no máximo duas casas decimais")
     private BigDecimal valor;
 
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant criadoEm;
+
+    @PrePersist
+    void registrarCriacao() {
+        if (criadoEm == null) {
+            // Precisao do TIMESTAMP do Postgres: a resposta mostra o mesmo valor lido depois no historico
+            criadoEm = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.pagamento.Pagamento.Model;
+
+public enum StatusPagamento {
+
+    APROVADO,
+    DADOS_INVALIDOS,
+    CLIENTE_NAO_ENCONTRADO,
+    CARTAO_NAO_ENCONTRADO,
+    CARTAO_NAO_PERTENCE_AO_CLIENTE,
+    CVV_INCORRETO,
+    LIMITE_INSUFICIENTE,
+    LIMITE_REQUISICOES_EXCEDIDO
+
+}
@@ -0,0 +1,40 @@
+package com.pagamento.Pagamento.Repository;
+
+import com.pagamento.Pagamento.Model.EventoPagamento;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+// Leitura do outbox pelo relay: um unico comando retira e devolve o lote
+@Repository
+public class EventoPagamentoJdbcRepository {
+
+    // SKIP LOCKED: relays concorrentes (outras instancias) pegam lotes disjuntos sem esperar uns pelos outros;
+    // as linhas ficam travadas pelo DELETE ate o commit e voltam a fila se a transacao for desfeita
+    private static final String RETIRAR_LOTE = """
+            WITH lote AS (
+                DELETE FROM evento_pagamento
+                WHERE id IN (SELECT id FROM evento_pagamento ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)
+                RETURNING id, chave_pagamento, tipo, payload, criado_em
+            )
+            SELECT * FROM lote ORDER BY id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EventoPagamentoJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Deve ser chamado dentro de uma transacao, que so deve ser confirmada depois da publicacao
+    public List<EventoPagamento> retirarLote(int tamanho) {
+        return jdbcTemplate.query(RETIRAR_LOTE, (rs, i) -> new EventoPagamento(
+                rs.getLong("id"),
+                rs.getObject("chave_pagamento", UUID.class),
+                rs.getString("tipo"),
+                rs.getString("payload"),
+                rs.getTimestamp("criado_em").toInstant()), tamanho);
+    }
+}
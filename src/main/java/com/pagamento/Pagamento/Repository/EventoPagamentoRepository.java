@@ -0,0 +1,7 @@
+package com.pagamento.Pagamento.Repository;
+
+import com.pagamento.Pagamento.Model.EventoPagamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EventoPagamentoRepository extends JpaRepository<EventoPagamento, Long> {
+}
@@ -0,0 +1,44 @@
+package com.pagamento.Pagamento.Repository;
+
+import com.pagamento.Pagamento.Model.IdempotenciaPagamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotenciaPagamentoRepository extends JpaRepository<IdempotenciaPagamento, String> {
+
+    // 1 quando a chave foi reservada por esta chamada; 0 quando ja existe um registro, concluido ou em andamento
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotencia_pagamento (chave, impressao, criado_em) VALUES (:chave, :impressao, :criadoEm) "
+            + "ON CONFLICT (chave) DO NOTHING", nativeQuery = true)
+    int reservar(@Param("chave") String chave, @Param("impressao") String impressao, @Param("criadoEm") Instant criadoEm);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotenciaPagamento i SET i.statusHttp = :statusHttp, i.corpo = :corpo "
+            + "WHERE i.chave = :chave AND i.statusHttp IS NULL")
+    int concluir(@Param("chave") String chave, @Param("statusHttp") int statusHttp, @Param("corpo") String corpo);
+
+    // Desfaz a reserva de uma execucao que falhou, para que a chave possa ser usada de novo
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotenciaPagamento i WHERE i.chave = :chave AND i.statusHttp IS NULL")
+    int liberar(@Param("chave") String chave);
+
+    // Sempre le o banco: com o open-in-view, um findById repetido devolveria a entidade ja carregada na requisicao
+    @Query("SELECT new com.pagamento.Pagamento.Model.IdempotenciaPagamento(i.chave, i.statusHttp, i.corpo, i.impressao, i.criadoEm) "
+            + "FROM IdempotenciaPagamento i WHERE i.chave = :chave")
+    Optional<IdempotenciaPagamento> consultar(@Param("chave") String chave);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotenciaPagamento i WHERE i.criadoEm < :limite")
+    int excluirCriadosAntesDe(@Param("limite") Instant limite);
+
+}
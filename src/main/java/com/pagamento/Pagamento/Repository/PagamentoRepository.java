@@ -1,12 +1,43 @@
 package com.pagamento.Pagamento.Repository;
 
 import com.pagamento.Pagamento.Model.Pagamento;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface PagamentoRepository extends JpaRepository<Pagamento, UUID> {
 
-    List<Pagamento> findAllByCpf(String cpf);
+    // Paginacao por chave servida pelo indice (cpf, criado_em, chave_pagamento); a chave desempata
+    // pagamentos criados no mesmo instante. Os limites de criado_em restringem as particoes lidas
+    @Query("SELECT p FROM Pagamento p WHERE p.cpf = :cpf AND p.criadoEm >= :inicio AND p.criadoEm < :fim "
+            + "ORDER BY p.criadoEm, p.chavePagamento")
+    List<Pagamento> findByCpfNoPeriodo(@Param("cpf") String cpf, @Param("inicio") Instant inicio,
+                                       @Param("fim") Instant fim, Limit limit);
 
-}
\ No newline at end of file
+    // criadoEm >= :criadoEm repete a comparacao de linha em uma forma que o Postgres usa para descartar particoes
+    @Query("SELECT p FROM Pagamento p WHERE p.cpf = :cpf AND p.criadoEm >= :inicio AND p.criadoEm >= :criadoEm "
+            + "AND (p.criadoEm, p.chavePagamento) > (:criadoEm, :chave) AND p.criadoEm < :fim "
+            + "ORDER BY p.criadoEm, p.chavePagamento")
+    List<Pagamento> findByCpfNoPeriodoAposCursor(@Param("cpf") String cpf, @Param("inicio") Instant inicio,
+                                                 @Param("fim") Instant fim, @Param("criadoEm") Instant criadoEm,
+                                                 @Param("chave") UUID chave, Limit limit);
+
+    // Cursor do banco lido em blocos de fetch size; deve ser consumido dentro de uma transacao
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Pagamento p WHERE p.cpf = :cpf AND p.criadoEm >= :inicio AND p.criadoEm < :fim "
+            + "ORDER BY p.criadoEm, p.chavePagamento")
+    Stream<Pagamento> streamByCpfNoPeriodo(@Param("cpf") String cpf, @Param("inicio") Instant inicio,
+                                           @Param("fim") Instant fim);
+
+}
@@ -0,0 +1,68 @@
+package com.pagamento.Pagamento.Repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Particoes mensais da tabela pagamento (V7__particionamento_pagamento.sql): pagamento_pAAAA_MM cobre o mes em UTC
+@Repository
+public class ParticaoPagamentoJdbcRepository {
+
+    private static final DateTimeFormatter NOME = DateTimeFormatter.ofPattern("'pagamento_p'yyyy_MM");
+
+    private static final String LISTAR = """
+            SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'pagamento'::regclass
+            """;
+
+    private static final String DESANEXACAO_PENDENTE = """
+            SELECT i.inhdetachpending FROM pg_inherits i
+            WHERE i.inhparent = 'pagamento'::regclass AND i.inhrelid = to_regclass(?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ParticaoPagamentoJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<YearMonth> listarMeses() {
+        List<YearMonth> meses = new ArrayList<>();
+        for (String nome : jdbcTemplate.queryForList(LISTAR, String.class)) {
+            try {
+                meses.add(YearMonth.parse(nome, NOME));
+            } catch (DateTimeParseException e) {
+                // Particao criada fora da convencao de nomes: nao e gerenciada aqui
+            }
+        }
+        return meses;
+    }
+
+    // Os indices da tabela pai sao criados na particao pelo proprio Postgres
+    public void criar(YearMonth mes) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + nome(mes) + " PARTITION OF pagamento FOR VALUES FROM ('"
+                + mes.atDay(1).atStartOfDay(ZoneOffset.UTC) + "') TO ('"
+                + mes.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC) + "')");
+    }
+
+    // CONCURRENTLY: pagamentos de outros meses continuam sendo gravados e lidos durante a operacao; nao pode
+    // rodar dentro de uma transacao. A tabela desanexada continua no banco, pronta para arquivamento.
+    // Se uma execucao anterior foi interrompida (timeout, conexao perdida) a particao fica pendente e o
+    // Postgres recusa um novo CONCURRENTLY: so o FINALIZE conclui a desanexacao
+    public void desanexar(YearMonth mes) {
+        String particao = nome(mes);
+        List<Boolean> pendente = jdbcTemplate.queryForList(DESANEXACAO_PENDENTE, Boolean.class, particao);
+        String modo = !pendente.isEmpty() && pendente.get(0) ? " FINALIZE" : " CONCURRENTLY";
+        jdbcTemplate.execute("ALTER TABLE pagamento DETACH PARTITION " + particao + modo);
+    }
+
+    public static String nome(YearMonth mes) {
+        return NOME.format(mes);
+    }
+}
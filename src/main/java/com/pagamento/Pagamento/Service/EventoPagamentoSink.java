@@ -0,0 +1,17 @@
+package com.pagamento.Pagamento.Service;
+
+import com.pagamento.Pagamento.Model.EventoPagamento;
+
+import java.util.List;
+
+/**
+ * Destino dos eventos retirados do outbox (ledger, notificacoes, antifraude...).
+ *
+ * Recebe um lote inteiro, em ordem de gravacao, e so deve retornar depois que todos os eventos
+ * foram aceitos pelo destino. Uma excecao desfaz a retirada do lote, que sera entregue de novo:
+ * a entrega e "ao menos uma vez" e o consumidor deve descartar repetidos pela chave do pagamento.
+ */
+public interface EventoPagamentoSink {
+
+    void publicar(List<EventoPagamento> eventos);
+}
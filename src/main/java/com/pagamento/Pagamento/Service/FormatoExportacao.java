@@ -0,0 +1,34 @@
+package com.pagamento.Pagamento.Service;
+
+import org.springframework.http.MediaType;
+
+public enum FormatoExportacao {
+
+    NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+    CSV("csv", MediaType.parseMediaType("text/csv"));
+
+    private final String extensao;
+    private final MediaType mediaType;
+
+    FormatoExportacao(String extensao, MediaType mediaType) {
+        this.extensao = extensao;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static FormatoExportacao de(String formato) {
+        for (FormatoExportacao valor : values()) {
+            if (valor.extensao.equalsIgnoreCase(formato)) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Formato de exportação inválido: " + formato);
+    }
+}
@@ -0,0 +1,244 @@
+package com.pagamento.Pagamento.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Config.CacheConfig;
+import com.pagamento.Exception.ServiceException;
+import com.pagamento.Pagamento.Model.IdempotenciaPagamento;
+import com.pagamento.Pagamento.Repository.IdempotenciaPagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Garante que um POST repetido com a mesma Idempotency-Key execute a autorizacao uma unica vez.
+ *
+ * Antes da autorizacao a chave e reservada com um INSERT na tabela idempotencia_pagamento, cuja chave
+ * primaria garante uma unica execucao mesmo entre instancias; a linha e concluida com a resposta, que
+ * um reenvio devolve sem consultar clientes, cartoes ou pagamentos. Requisicoes simultaneas com a mesma
+ * chave aguardam a primeira, por no maximo pagamento.idempotencia.espera, e recebem 409 se ela nao terminar.
+ * O cache Caffeine e o mapa de execucoes em andamento so evitam idas ao banco na mesma instancia.
+ *
+ * Se a instancia cair durante a autorizacao a reserva fica pendente e a chave e recusada com 409 ate
+ * expirar: a autorizacao pode ter sido gravada, entao nao e executada de novo.
+ *
+ * Cada chave fica vinculada a impressao da requisicao original (HMAC do chamador e dos campos enviados):
+ * reutiliza-la com outro conteudo, ou por outro chamador, e recusado com 422 em vez de reenviar a resposta.
+ */
+@Service
+public class IdempotenciaService {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REENVIO = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotenciaService.class);
+    private static final String HMAC = "HmacSHA256";
+    // Intervalo entre consultas a uma chave reservada por outra instancia
+    private static final long INTERVALO_CONSULTA_MS = 50;
+
+    private final IdempotenciaPagamentoRepository idempotenciaRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache respostas;
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotenciaPagamento>> emAndamento = new ConcurrentHashMap<>();
+
+    @Value("${pagamento.idempotencia.retencao}")
+    private Duration retencao;
+
+    @Value("${pagamento.idempotencia.espera}")
+    private Duration espera;
+
+    private final SecretKeySpec segredo;
+
+    public IdempotenciaService(IdempotenciaPagamentoRepository idempotenciaRepository, ObjectMapper objectMapper,
+                               CacheManager cacheManager, @Value("${pagamento.idempotencia.segredo}") String segredo) {
+        this.idempotenciaRepository = idempotenciaRepository;
+        this.objectMapper = objectMapper;
+        this.respostas = cacheManager.getCache(CacheConfig.IDEMPOTENCIA);
+        this.segredo = new SecretKeySpec(segredo.getBytes(StandardCharsets.UTF_8), HMAC);
+    }
+
+    // HMAC, e nao um hash simples: a impressao inclui o CVV, que nao pode ser recuperado por forca bruta
+    public String impressao(String chamador, Object... campos) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(segredo);
+            mac.update(String.valueOf(chamador).getBytes(StandardCharsets.UTF_8));
+            for (Object campo : campos) {
+                // 10.0 e 10.00 sao a mesma requisicao
+                String valor = campo instanceof BigDecimal numero ? numero.stripTrailingZeros().toPlainString()
+                        : String.valueOf(campo);
+                mac.update((byte) 0);
+                mac.update(valor.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 indisponível", e);
+        }
+    }
+
+    public ResponseEntity<?> executar(String chave, String impressao, Supplier<ResponseEntity<?>> operacao) {
+        IdempotenciaPagamento registrada = respostas.get(chave, IdempotenciaPagamento.class);
+        if (registrada != null) {
+            return reenviar(registrada, impressao);
+        }
+
+        // Na mesma instancia, requisicoes simultaneas aguardam a primeira sem consultar o banco
+        CompletableFuture<IdempotenciaPagamento> execucao = new CompletableFuture<>();
+        CompletableFuture<IdempotenciaPagamento> existente = emAndamento.putIfAbsent(chave, execucao);
+        if (existente != null) {
+            return aguardar(existente, impressao);
+        }
+
+        try {
+            long prazo = System.nanoTime() + espera.toNanos();
+            while (true) {
+                Instant criadoEm = Instant.now();
+                if (idempotenciaRepository.reservar(chave, impressao, criadoEm) == 1) {
+                    return executarReservada(chave, impressao, criadoEm, operacao, execucao);
+                }
+                // Reservada por outra requisicao, nesta ou em outra instancia
+                registrada = idempotenciaRepository.consultar(chave).orElse(null);
+                boolean esgotado = System.nanoTime() - prazo >= 0;
+                if (registrada == null) {
+                    // A execucao que a reservou falhou e a liberou: tenta reservar de novo
+                    if (esgotado) {
+                        execucao.complete(null);
+                        return emProcessamento();
+                    }
+                    continue;
+                }
+                if (registrada.getStatusHttp() == null && mesmaImpressao(registrada, impressao) && !esgotado) {
+                    pausar();
+                    continue;
+                }
+                if (registrada.getStatusHttp() != null) {
+                    respostas.put(chave, registrada);
+                }
+                execucao.complete(registrada);
+                return reenviar(registrada, impressao);
+            }
+        } catch (RuntimeException ex) {
+            execucao.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            emAndamento.remove(chave, execucao);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pagamento.idempotencia.intervalo-limpeza}")
+    public void excluirExpiradas() {
+        int excluidas = idempotenciaRepository.excluirCriadosAntesDe(Instant.now().minus(retencao));
+        if (excluidas > 0) {
+            logger.info("{} chaves de idempotencia expiradas excluidas", excluidas);
+        }
+    }
+
+    // A chave ja esta reservada no banco: nenhuma outra requisicao com ela executa a operacao
+    private ResponseEntity<?> executarReservada(String chave, String impressao, Instant criadoEm,
+                                                Supplier<ResponseEntity<?>> operacao,
+                                                CompletableFuture<IdempotenciaPagamento> execucao) {
+        ResponseEntity<?> resposta;
+        try {
+            resposta = operacao.get();
+        } catch (RuntimeException ex) {
+            idempotenciaRepository.liberar(chave);
+            throw ex;
+        }
+
+        IdempotenciaPagamento registro = new IdempotenciaPagamento(
+                chave, resposta.getStatusCode().value(), serializar(resposta.getBody()), impressao, criadoEm);
+        // Falhas internas e recusas por limite de taxa nao sao guardadas: o cliente pode tentar novamente
+        if (resposta.getStatusCode().is5xxServerError() || resposta.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+            idempotenciaRepository.liberar(chave);
+        } else {
+            if (idempotenciaRepository.concluir(chave, registro.getStatusHttp(), registro.getCorpo()) == 0) {
+                logger.warn("Reserva da Idempotency-Key {} nao encontrada ao registrar a resposta", chave);
+            }
+            respostas.put(chave, registro);
+        }
+        execucao.complete(registro);
+        return resposta;
+    }
+
+    private ResponseEntity<?> aguardar(CompletableFuture<IdempotenciaPagamento> existente, String impressao) {
+        try {
+            IdempotenciaPagamento registrada = existente.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+            return registrada != null ? reenviar(registrada, impressao) : emProcessamento();
+        } catch (TimeoutException e) {
+            return emProcessamento();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Interrompido aguardando a requisição com a mesma Idempotency-Key");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new ServiceException("Erro na requisição com a mesma Idempotency-Key: " + e.getCause());
+        }
+    }
+
+    private ResponseEntity<?> reenviar(IdempotenciaPagamento registrada, String impressao) {
+        if (!mesmaImpressao(registrada, impressao)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body("Idempotency-Key já utilizada com uma requisição diferente");
+        }
+        if (registrada.getStatusHttp() == null) {
+            return emProcessamento();
+        }
+        return ResponseEntity.status(registrada.getStatusHttp())
+                .header(CABECALHO_REENVIO, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(registrada.getCorpo());
+    }
+
+    private static boolean mesmaImpressao(IdempotenciaPagamento registrada, String impressao) {
+        return MessageDigest.isEqual(
+                registrada.getImpressao().getBytes(StandardCharsets.UTF_8), impressao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A primeira requisicao continua em andamento; o cliente repete mais tarde com a mesma chave
+    private static ResponseEntity<?> emProcessamento() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Requisição com esta Idempotency-Key ainda em processamento, tente novamente");
+    }
+
+    private static void pausar() {
+        try {
+            Thread.sleep(INTERVALO_CONSULTA_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Interrompido aguardando a requisição com a mesma Idempotency-Key");
+        }
+    }
+
+    private String serializar(Object corpo) {
+        try {
+            return objectMapper.writeValueAsString(corpo);
+        } catch (JsonProcessingException e) {
+            throw new ServiceException("Erro ao registrar a resposta idempotente: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.pagamento.Pagamento.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket por CPF e por cartao na entrada de POST /api/pagamentos; em POST /api/pagamentos/lote
+ * cada item consome o seu token.
+ *
+ * Cada bucket e um unico AtomicLong com o instante teorico de chegada (GCRA): o instante em que o
+ * bucket volta a estar cheio. Consumir um token e um compareAndSet que avanca esse instante em um
+ * intervalo; a reposicao e implicita na passagem do tempo, sem thread de refill e sem locks.
+ * Um bucket cujo instante ja passou esta cheio e pode ser descartado sem mudar o resultado, o que
+ * permite remover os ociosos periodicamente.
+ */
+@Component
+public class LimitadorTaxaPagamento {
+
+    private final ConcurrentHashMap<String, AtomicLong> porCpf = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> porCartao = new ConcurrentHashMap<>();
+
+    private final boolean habilitado;
+    private final long intervaloCpf;
+    private final long toleranciaCpf;
+    private final long intervaloCartao;
+    private final long toleranciaCartao;
+    private final long ociosidade;
+    private final LongSupplier relogio;
+
+    @Autowired
+    public LimitadorTaxaPagamento(@Value("${pagamento.limite-taxa.habilitado}") boolean habilitado,
+                                  @Value("${pagamento.limite-taxa.cpf.requisicoes-por-segundo}") double taxaCpf,
+                                  @Value("${pagamento.limite-taxa.cpf.rajada}") int rajadaCpf,
+                                  @Value("${pagamento.limite-taxa.cartao.requisicoes-por-segundo}") double taxaCartao,
+                                  @Value("${pagamento.limite-taxa.cartao.rajada}") int rajadaCartao,
+                                  @Value("${pagamento.limite-taxa.ociosidade}") Duration ociosidade) {
+        this(habilitado, taxaCpf, rajadaCpf, taxaCartao, rajadaCartao, ociosidade, System::nanoTime);
+    }
+
+    LimitadorTaxaPagamento(boolean habilitado, double taxaCpf, int rajadaCpf, double taxaCartao, int rajadaCartao,
+                           Duration ociosidade, LongSupplier relogio) {
+        this.habilitado = habilitado;
+        this.intervaloCpf = (long) (1_000_000_000L / taxaCpf);
+        this.toleranciaCpf = intervaloCpf * rajadaCpf;
+        this.intervaloCartao = (long) (1_000_000_000L / taxaCartao);
+        this.toleranciaCartao = intervaloCartao * rajadaCartao;
+        this.ociosidade = ociosidade.toNanos();
+        this.relogio = relogio;
+    }
+
+    // Retorna 0 se o pagamento pode seguir ou, se recusado, quantos nanossegundos esperar
+    public long consumir(String cpf, String numero) {
+        if (!habilitado) {
+            return 0;
+        }
+        long agora = relogio.getAsLong();
+        AtomicLong bucketCpf = bucket(porCpf, cpf, agora);
+        long espera = consumir(bucketCpf, agora, intervaloCpf, toleranciaCpf);
+        if (espera > 0) {
+            return espera;
+        }
+        espera = consumir(bucket(porCartao, numero, agora), agora, intervaloCartao, toleranciaCartao);
+        if (espera > 0) {
+            // O pagamento nao vai seguir: devolve o token ja retirado do CPF
+            bucketCpf.addAndGet(-intervaloCpf);
+        }
+        return espera;
+    }
+
+    // get antes do computeIfAbsent: no caminho comum o bucket ja existe e nada e alocado
+    private static AtomicLong bucket(ConcurrentHashMap<String, AtomicLong> buckets, String chave, long agora) {
+        AtomicLong bucket = buckets.get(chave);
+        return bucket != null ? bucket : buckets.computeIfAbsent(chave, c -> new AtomicLong(agora));
+    }
+
+    private static long consumir(AtomicLong bucket, long agora, long intervalo, long tolerancia) {
+        long atual;
+        long proximo;
+        do {
+            atual = bucket.get();
+            proximo = Math.max(atual, agora) + intervalo;
+            if (proximo - agora > tolerancia) {
+                return proximo - agora - tolerancia;
+            }
+        } while (!bucket.compareAndSet(atual, proximo));
+        return 0;
+    }
+
+    // Remove buckets cheios ha mais tempo que a ociosidade configurada
+    @Scheduled(fixedDelayString = "${pagamento.limite-taxa.intervalo-limpeza}")
+    public void removerOciosos() {
+        long limite = relogio.getAsLong() - ociosidade;
+        porCpf.values().removeIf(bucket -> bucket.get() - limite < 0);
+        porCartao.values().removeIf(bucket -> bucket.get() - limite < 0);
+    }
+
+    int totalBuckets() {
+        return porCpf.size() + porCartao.size();
+    }
+}
@@ -0,0 +1,25 @@
+package com.pagamento.Pagamento.Service;
+
+import com.pagamento.Pagamento.Model.EventoPagamento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Sink local: escreve cada evento no logger "eventos.pagamento", que pode ser direcionado a um arquivo.
+// O payload ja e gravado com o numero do cartao mascarado (OutboxPagamento)
+@Component
+@ConditionalOnProperty(name = "pagamento.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogEventoPagamentoSink implements EventoPagamentoSink {
+
+    private static final Logger logger = LoggerFactory.getLogger("eventos.pagamento");
+
+    @Override
+    public void publicar(List<EventoPagamento> eventos) {
+        for (EventoPagamento evento : eventos) {
+            logger.info("{} {} {}", evento.getId(), evento.getTipo(), evento.getPayload());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.pagamento.Pagamento.Service;
+
+import com.pagamento.Pagamento.Model.StatusPagamento;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metricas da autorizacao de pagamentos.
+ *
+ * pagamento.autorizacao.etapa{etapa=...}: latencia de cada etapa de cadastrarPagamento, com
+ * histograma de percentis (pagamento_autorizacao_etapa_seconds_bucket no Prometheus).
+ * pagamento.recusas{motivo=...}: pagamentos recusados por motivo, no pagamento unitario e no lote.
+ *
+ * Timers e contadores sao registrados uma unica vez no construtor e acessados pelo ordinal do enum;
+ * no caminho do pagamento nao ha busca no registry nem alocacao, apenas System.nanoTime e o record.
+ */
+@Component
+public class MetricasPagamento {
+
+    public enum Etapa {
+        // Modo memoria
+        CLIENTE,
+        CARTAO,
+        // Dono do cartao, CVV e reserva do limite no ledger
+        REGRAS,
+        DEBITO,
+        // Modo banco: o UPDATE condicional que confere e debita
+        AUTORIZACAO,
+        // Ambos os modos
+        INSERCAO
+    }
+
+    private final Timer[] etapas = new Timer[Etapa.values().length];
+    private final Counter[] recusas = new Counter[StatusPagamento.values().length];
+
+    public MetricasPagamento(MeterRegistry meterRegistry) {
+        for (Etapa etapa : Etapa.values()) {
+            etapas[etapa.ordinal()] = Timer.builder("pagamento.autorizacao.etapa")
+                    .tag("etapa", etapa.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(meterRegistry);
+        }
+        for (StatusPagamento status : StatusPagamento.values()) {
+            if (status != StatusPagamento.APROVADO) {
+                recusas[status.ordinal()] = Counter.builder("pagamento.recusas")
+                        .tag("motivo", status.name().toLowerCase())
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    // Registra a etapa iniciada em inicio e devolve o instante atual, que e o inicio da proxima
+    public long registrar(Etapa etapa, long inicio) {
+        long agora = System.nanoTime();
+        etapas[etapa.ordinal()].record(agora - inicio, TimeUnit.NANOSECONDS);
+        return agora;
+    }
+
+    public void recusar(StatusPagamento motivo) {
+        if (motivo != StatusPagamento.APROVADO) {
+            recusas[motivo.ordinal()].increment();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.pagamento.Pagamento.Service;
+
+public enum ModoAutorizacao {
+
+    // Limite controlado pelo LimiteCartaoLedger desta instancia
+    MEMORIA,
+
+    // Limite debitado por UPDATE condicional no cartao, seguro com varias instancias
+    BANCO
+
+}
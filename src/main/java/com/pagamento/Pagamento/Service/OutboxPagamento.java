@@ -0,0 +1,65 @@
+package com.pagamento.Pagamento.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Cartao.Utils.NumeroCartaoMascarado;
+import com.pagamento.Exception.ServiceException;
+import com.pagamento.Pagamento.DTO.PagamentoAprovadoDto;
+import com.pagamento.Pagamento.Model.EventoPagamento;
+import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Repository.EventoPagamentoRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grava os eventos de pagamento aprovado na tabela evento_pagamento (transactional outbox).
+ *
+ * O evento e inserido na mesma transacao do pagamento: ou os dois sao confirmados, ou nenhum.
+ * A publicacao para os sistemas externos fica a cargo de {@link RelayEventoPagamento}.
+ */
+@Component
+public class OutboxPagamento {
+
+    private final EventoPagamentoRepository eventoPagamentoRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxPagamento(EventoPagamentoRepository eventoPagamentoRepository, ObjectMapper objectMapper) {
+        this.eventoPagamentoRepository = eventoPagamentoRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAprovado(Pagamento pagamento) {
+        eventoPagamentoRepository.save(aprovado(pagamento, Instant.now()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAprovados(List<Pagamento> pagamentos) {
+        if (pagamentos.isEmpty()) {
+            return;
+        }
+        Instant agora = Instant.now();
+        List<EventoPagamento> eventos = new ArrayList<>(pagamentos.size());
+        for (Pagamento pagamento : pagamentos) {
+            eventos.add(aprovado(pagamento, agora));
+        }
+        eventoPagamentoRepository.saveAll(eventos);
+    }
+
+    // O payload sai do banco para sistemas externos e logs: o numero do cartao ja e gravado mascarado
+    private EventoPagamento aprovado(Pagamento pagamento, Instant agora) {
+        PagamentoAprovadoDto payload = new PagamentoAprovadoDto(pagamento.getChavePagamento(), pagamento.getCpf(),
+                NumeroCartaoMascarado.mascarar(pagamento.getNumero()), pagamento.getValor());
+        try {
+            return new EventoPagamento(null, pagamento.getChavePagamento(), EventoPagamento.PAGAMENTO_APROVADO,
+                    objectMapper.writeValueAsString(payload), agora);
+        } catch (JsonProcessingException e) {
+            throw new ServiceException("Erro ao registrar o evento do pagamento: " + e.getMessage());
+        }
+    }
+}
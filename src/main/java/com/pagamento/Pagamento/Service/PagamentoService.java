@@ -1,12 +1,19 @@
 package com.pagamento.Pagamento.Service;
 
-import com.pagamento.Pagamento.DTO.PagamentoPorClienteDto;
+import com.pagamento.Pagamento.DTO.PaginaPagamentosDto;
+import com.pagamento.Pagamento.DTO.ResultadoPagamentoLoteDto;
 import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Utils.PeriodoPagamentos;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface PagamentoService {
 
     Pagamento cadastrarPagamento(Pagamento pagamento);
-    List<PagamentoPorClienteDto> listaPagamentosPorCliente(String cpf);
+    List<ResultadoPagamentoLoteDto> cadastrarPagamentosEmLote(List<Pagamento> pagamentos);
+    PaginaPagamentosDto listaPagamentosPorCliente(String cpf, PeriodoPagamentos periodo, String cursor, int tamanho);
+    void exportarPagamentosPorCliente(String cpf, PeriodoPagamentos periodo, FormatoExportacao formato,
+                                      OutputStream saida) throws IOException;
 
 }
\ No newline at end of file
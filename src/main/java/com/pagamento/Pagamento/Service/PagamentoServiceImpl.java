@@ -1,70 +1,388 @@
 package com.pagamento.Pagamento.Service;
 
+import com.pagamento.Cartao.DTO.CartaoAutorizacaoDTO;
+import com.pagamento.Cartao.DTO.DebitoCartaoDTO;
 import com.pagamento.Cartao.Service.CartaoService;
+import com.pagamento.Cartao.Service.LimiteCartaoLedger;
+import com.pagamento.Cartao.Utils.CvvHasher;
+import com.pagamento.Cartao.Utils.NumeroCartaoMascarado;
 import com.pagamento.Exception.ServiceException;
 import com.pagamento.Cliente.Model.Cliente;
 import com.pagamento.Cliente.Repository.ClienteRepository;
 import com.pagamento.Exception.LimiteCartaoException;
 import com.pagamento.Exception.MessageNotFoundException;
-import com.pagamento.Pagamento.CartaoDto;
+import com.pagamento.Pagamento.DTO.PagamentoExportacaoDto;
 import com.pagamento.Pagamento.DTO.PagamentoPorClienteDto;
+import com.pagamento.Pagamento.DTO.PaginaPagamentosDto;
+import com.pagamento.Pagamento.DTO.ResultadoPagamentoLoteDto;
 import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Model.StatusPagamento;
 import com.pagamento.Pagamento.Repository.PagamentoRepository;
+import com.pagamento.Pagamento.Service.MetricasPagamento.Etapa;
+import com.pagamento.Pagamento.Utils.CursorPagamento;
+import com.pagamento.Pagamento.Utils.PeriodoPagamentos;
+import com.pagamento.Config.LeituraReplica;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PagamentoServiceImpl implements PagamentoService {
 
+    private static final int TAMANHO_BLOCO_EXPORTACAO = 1000;
+
     private final PagamentoRepository pagamentoRepository;
     private final ClienteRepository clienteRepository;
     private final CartaoService cartaoService;
+    private final LimiteCartaoLedger limiteCartaoLedger;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final MetricasPagamento metricasPagamento;
+    private final OutboxPagamento outboxPagamento;
+    private final LimitadorTaxaPagamento limitadorTaxaPagamento;
+
+    @Value("${pagamento.autorizacao.modo}")
+    private ModoAutorizacao modoAutorizacao;
 
     @Override
+    @Transactional
     public Pagamento cadastrarPagamento(Pagamento pagamento)  throws ServiceException {
+        if (modoAutorizacao == ModoAutorizacao.BANCO) {
+            return autorizarNoBanco(pagamento);
+        }
 
+       long inicio = System.nanoTime();
        Cliente cliente = clienteRepository.findByCpf(pagamento.getCpf());
+       inicio = metricasPagamento.registrar(Etapa.CLIENTE, inicio);
        if (cliente == null) {
+           metricasPagamento.recusar(StatusPagamento.CLIENTE_NAO_ENCONTRADO);
            throw new MessageNotFoundException("Cliente não encontrado para este CPF: " + pagamento.getCpf());
        }
 
-       CartaoDto cartaoDto = (CartaoDto) cartaoService.buscarCartaoPorNumero(pagamento.getNumero());
+       // Leitura via cache: evita a consulta ao cartao a cada pagamento
+       CartaoAutorizacaoDTO cartao = cartaoService.buscarCartaoParaAutorizacao(pagamento.getNumero());
+       inicio = metricasPagamento.registrar(Etapa.CARTAO, inicio);
+       StatusPagamento status = avaliarCartao(pagamento, cartao);
 
-        if (cartaoDto == null) {
-            throw new MessageNotFoundException("Cartão inexistente");
-        } else if (!cartaoDto.getCpf().equals(pagamento.getCpf())) {
-            throw new MessageNotFoundException("Cartão não pertence a esse cliente");
-        } else if (cartaoDto.getLimite().compareTo(pagamento.getValor()) < 0) {
+        // Reserva atomica no saldo do cartao: pagamentos concorrentes nao ultrapassam o limite
+        long centavos = LimiteCartaoLedger.paraCentavos(pagamento.getValor());
+        boolean reservado = status == StatusPagamento.APROVADO
+                && limiteCartaoLedger.reservar(cartao.numero(), centavos, () -> limiteGravado(cartao.numero()));
+        inicio = metricasPagamento.registrar(Etapa.REGRAS, inicio);
+        recusarSeInvalido(status);
+        if (!reservado) {
+            metricasPagamento.recusar(StatusPagamento.LIMITE_INSUFICIENTE);
             throw new LimiteCartaoException("Limite insuficiente para a compra");
-        } else if (!cartaoDto.getCvv().equals(pagamento.getCvv())) {
-            throw new MessageNotFoundException("Código CVV incorreto, compra recusada");
         }
+        estornarSeDesfeita(cartao.numero(), centavos);
 
-        return pagamentoRepository.save(pagamento);
+        // O UPDATE so debita se o limite gravado cobrir o valor; caso contrario o saldo em memoria estava desatualizado
+        if (!cartaoService.debitarLimite(cartao.numero(), pagamento.getValor())) {
+            ressincronizarAoConcluir(cartao.numero());
+            metricasPagamento.recusar(StatusPagamento.LIMITE_INSUFICIENTE);
+            throw new LimiteCartaoException("Limite insuficiente para a compra");
+        }
+        inicio = metricasPagamento.registrar(Etapa.DEBITO, inicio);
+        return inserir(pagamento, inicio);
     }
 
     @Override
-    public List<PagamentoPorClienteDto> listaPagamentosPorCliente(String cpf) {
-        List<PagamentoPorClienteDto> retorno = new ArrayList<>();
-        PagamentoPorClienteDto pagamentoDto = null;
+    @Transactional
+    public List<ResultadoPagamentoLoteDto> cadastrarPagamentosEmLote(List<Pagamento> pagamentos) throws ServiceException {
+        List<ResultadoPagamentoLoteDto> resultados = new ArrayList<>(pagamentos.size());
+        List<Pagamento> validos = new ArrayList<>(pagamentos.size());
+        for (int i = 0; i < pagamentos.size(); i++) {
+            Pagamento pagamento = pagamentos.get(i);
+            // Cada item consome um token do CPF e do cartao, como um POST avulso, antes de qualquer acesso ao banco
+            StatusPagamento status = pagamento == null || !validator.validate(pagamento).isEmpty()
+                    ? StatusPagamento.DADOS_INVALIDOS
+                    : limitadorTaxaPagamento.consumir(pagamento.getCpf(), pagamento.getNumero()) > 0
+                    ? StatusPagamento.LIMITE_REQUISICOES_EXCEDIDO
+                    : StatusPagamento.APROVADO;
+            resultados.add(new ResultadoPagamentoLoteDto(i, null, status));
+            if (status == StatusPagamento.APROVADO) {
+                validos.add(pagamento);
+            }
+        }
 
-        List<Pagamento> pagamentos = pagamentoRepository.findAllByCpf(cpf);
+        // Clientes e cartoes do lote inteiro sao carregados com uma consulta IN cada
+        Set<String> cpfsCadastrados = validos.isEmpty() ? Set.of() : new HashSet<>(clienteRepository.findCpfsCadastrados(
+                validos.stream().map(Pagamento::getCpf).collect(Collectors.toSet())));
+        Map<String, CartaoAutorizacaoDTO> cartoes = validos.isEmpty() ? Map.of() : cartaoService.buscarCartoesParaAutorizacao(
+                validos.stream().map(Pagamento::getNumero).collect(Collectors.toSet()));
+
+        List<Integer> candidatos = new ArrayList<>();
+        for (ResultadoPagamentoLoteDto resultado : resultados) {
+            if (resultado.getStatus() != StatusPagamento.APROVADO) {
+                continue;
+            }
+            Pagamento pagamento = pagamentos.get(resultado.getIndice());
+            resultado.setStatus(cpfsCadastrados.contains(pagamento.getCpf())
+                    ? avaliarCartao(pagamento, cartoes.get(pagamento.getNumero()))
+                    : StatusPagamento.CLIENTE_NAO_ENCONTRADO);
+            if (resultado.getStatus() == StatusPagamento.APROVADO) {
+                candidatos.add(resultado.getIndice());
+            }
+        }
+
+        if (modoAutorizacao == ModoAutorizacao.BANCO) {
+            debitarLoteNoBanco(pagamentos, candidatos, resultados);
+        } else {
+            debitarLoteEmMemoria(pagamentos, candidatos, resultados, cartoes);
+        }
+
+        List<Pagamento> aprovados = new ArrayList<>(candidatos.size());
+        for (Integer indice : candidatos) {
+            if (resultados.get(indice).getStatus() == StatusPagamento.APROVADO) {
+                aprovados.add(pagamentos.get(indice));
+            }
+        }
+        // Insercoes agrupadas pelo hibernate.jdbc.batch_size
+        pagamentoRepository.saveAll(aprovados);
+        outboxPagamento.registrarAprovados(aprovados);
+        for (Integer indice : candidatos) {
+            resultados.get(indice).setChavePagamento(pagamentos.get(indice).getChavePagamento());
+        }
+        for (ResultadoPagamentoLoteDto resultado : resultados) {
+            metricasPagamento.recusar(resultado.getStatus());
+        }
+        return resultados;
+    }
 
+    @Override
+    @LeituraReplica
+    @Transactional(readOnly = true)
+    public PaginaPagamentosDto listaPagamentosPorCliente(String cpf, PeriodoPagamentos periodo, String cursor,
+                                                         int tamanho) {
+        // Busca um item a mais para saber se existe proxima pagina
+        Limit limite = Limit.of(tamanho + 1);
+        List<Pagamento> pagamentos;
+        if (cursor == null) {
+            pagamentos = pagamentoRepository.findByCpfNoPeriodo(cpf, periodo.inicio(), periodo.fim(), limite);
+        } else {
+            CursorPagamento.Posicao posicao = CursorPagamento.decodificar(cursor);
+            pagamentos = pagamentoRepository.findByCpfNoPeriodoAposCursor(cpf, periodo.inicio(), periodo.fim(),
+                    posicao.criadoEm(), posicao.chavePagamento(), limite);
+        }
+
+        boolean temProxima = pagamentos.size() > tamanho;
+        if (temProxima) {
+            pagamentos = pagamentos.subList(0, tamanho);
+        }
+
+        List<PagamentoPorClienteDto> retorno = new ArrayList<>(pagamentos.size());
         for (Pagamento p : pagamentos) {
-            pagamentoDto = new PagamentoPorClienteDto();
-            pagamentoDto.setValor(p.getValor());
-            pagamentoDto.setMetodoPagamento("Cartão de crédito");
-            pagamentoDto.setDescricao("Compra");
-            pagamentoDto.setStatus("Aprovado");
+            retorno.add(toPagamentoPorClienteDto(p));
+        }
+
+        Pagamento ultimo = pagamentos.isEmpty() ? null : pagamentos.get(pagamentos.size() - 1);
+        String proximoCursor = temProxima
+                ? CursorPagamento.codificar(ultimo.getCriadoEm(), ultimo.getChavePagamento())
+                : null;
+        return new PaginaPagamentosDto(retorno, proximoCursor);
+    }
+
+    @Override
+    @LeituraReplica
+    @Transactional(readOnly = true)
+    public void exportarPagamentosPorCliente(String cpf, PeriodoPagamentos periodo, FormatoExportacao formato,
+                                             OutputStream saida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        if (formato == FormatoExportacao.CSV) {
+            escritor.write("chave_pagamento,criado_em,cpf,numero,valor\n");
+        }
+
+        long linhas = 0;
+        try (Stream<Pagamento> pagamentos = pagamentoRepository.streamByCpfNoPeriodo(cpf, periodo.inicio(), periodo.fim())) {
+            for (Pagamento p : (Iterable<Pagamento>) pagamentos::iterator) {
+                if (formato == FormatoExportacao.CSV) {
+                    escritor.write(p.getChavePagamento() + "," + p.getCriadoEm() + "," + p.getCpf() + "," + NumeroCartaoMascarado.mascarar(p.getNumero()) + "," + p.getValor().toPlainString() + "\n");
+                } else {
+                    escritor.write(objectMapper.writeValueAsString(new PagamentoExportacaoDto(
+                            p.getChavePagamento(), p.getCriadoEm(), p.getCpf(), NumeroCartaoMascarado.mascarar(p.getNumero()),
+                            p.getValor())));
+                    escritor.write('\n');
+                }
+                // Libera a entidade do contexto de persistencia: o uso de memoria nao cresce com o historico
+                entityManager.detach(p);
+
+                // A primeira linha sai imediatamente, as demais em blocos
+                if (++linhas == 1 || linhas % TAMANHO_BLOCO_EXPORTACAO == 0) {
+                    escritor.flush();
+                }
+            }
+        }
+        escritor.flush();
+    }
+
+    private PagamentoPorClienteDto toPagamentoPorClienteDto(Pagamento pagamento) {
+        PagamentoPorClienteDto pagamentoDto = new PagamentoPorClienteDto();
+        pagamentoDto.setValor(pagamento.getValor());
+        pagamentoDto.setCriadoEm(pagamento.getCriadoEm());
+        pagamentoDto.setMetodoPagamento("Cartão de crédito");
+        pagamentoDto.setDescricao("Compra");
+        pagamentoDto.setStatus("Aprovado");
+        return pagamentoDto;
+    }
+
+    private Pagamento autorizarNoBanco(Pagamento pagamento) {
+        // Um unico UPDATE condicional confere cliente, dono, CVV e limite e ja debita o valor;
+        // o proprio banco serializa os debitos do cartao, sem locks na aplicacao
+        long inicio = System.nanoTime();
+        int debitados = cartaoService.autorizarDebito(
+                pagamento.getNumero(), pagamento.getCpf(), pagamento.getCvv(), pagamento.getValor());
+        inicio = metricasPagamento.registrar(Etapa.AUTORIZACAO, inicio);
+        if (debitados == 0) {
+            recusarAutorizacao(pagamento);
+        }
+        return inserir(pagamento, inicio);
+    }
+
+    private Pagamento inserir(Pagamento pagamento, long inicio) {
+        Pagamento salvo = pagamentoRepository.save(pagamento);
+        outboxPagamento.registrarAprovado(salvo);
+        // flush: os INSERTs saem aqui, e nao no commit, para que a etapa meca o custo real
+        pagamentoRepository.flush();
+        metricasPagamento.registrar(Etapa.INSERCAO, inicio);
+        return salvo;
+    }
+
+    private void recusarAutorizacao(Pagamento pagamento) {
+        // Caminho de recusa: consulta os dados apenas para informar o motivo
+        if (clienteRepository.findByCpf(pagamento.getCpf()) == null) {
+            metricasPagamento.recusar(StatusPagamento.CLIENTE_NAO_ENCONTRADO);
+            throw new MessageNotFoundException("Cliente não encontrado para este CPF: " + pagamento.getCpf());
+        }
+        recusarSeInvalido(avaliarCartao(pagamento, cartaoService.buscarCartaoParaAutorizacao(pagamento.getNumero())));
+        metricasPagamento.recusar(StatusPagamento.LIMITE_INSUFICIENTE);
+        throw new LimiteCartaoException("Limite insuficiente para a compra");
+    }
+
+    private void debitarLoteNoBanco(List<Pagamento> pagamentos, List<Integer> candidatos,
+                                    List<ResultadoPagamentoLoteDto> resultados) {
+        if (candidatos.isEmpty()) {
+            return;
+        }
+        // UPDATEs condicionais em um unico batch JDBC; o contador de cada comando decide o item
+        List<DebitoCartaoDTO> debitos = candidatos.stream()
+                .map(pagamentos::get)
+                .map(p -> new DebitoCartaoDTO(p.getNumero(), p.getCpf(), p.getCvv(), p.getValor()))
+                .toList();
+        int[] debitados = cartaoService.autorizarDebitosEmLote(debitos);
+        for (int i = 0; i < debitados.length; i++) {
+            if (debitados[i] == 0) {
+                resultados.get(candidatos.get(i)).setStatus(StatusPagamento.LIMITE_INSUFICIENTE);
+            }
+        }
+    }
 
-            retorno.add(pagamentoDto);
+    private void debitarLoteEmMemoria(List<Pagamento> pagamentos, List<Integer> candidatos,
+                                      List<ResultadoPagamentoLoteDto> resultados,
+                                      Map<String, CartaoAutorizacaoDTO> cartoes) {
+        Map<String, Long> centavosPorCartao = new HashMap<>();
+        for (Integer indice : candidatos) {
+            Pagamento pagamento = pagamentos.get(indice);
+            CartaoAutorizacaoDTO cartao = cartoes.get(pagamento.getNumero());
+            long centavos = LimiteCartaoLedger.paraCentavos(pagamento.getValor());
+            if (limiteCartaoLedger.reservar(cartao.numero(), centavos, () -> limiteGravado(cartao.numero()))) {
+                centavosPorCartao.merge(cartao.numero(), centavos, Long::sum);
+            } else {
+                resultados.get(indice).setStatus(StatusPagamento.LIMITE_INSUFICIENTE);
+            }
         }
+        if (centavosPorCartao.isEmpty()) {
+            return;
+        }
+        // Um unico debito por cartao, com o total aprovado no lote
+        Map<String, BigDecimal> valoresPorCartao = new HashMap<>();
+        centavosPorCartao.forEach((numero, centavos) -> {
+            estornarSeDesfeita(numero, centavos);
+            valoresPorCartao.put(numero, BigDecimal.valueOf(centavos, 2));
+        });
+        Set<String> recusados = cartaoService.debitarLimitesEmLote(valoresPorCartao);
+        if (recusados.isEmpty()) {
+            return;
+        }
+        // O limite gravado nao cobre o total do cartao: todos os seus itens sao recusados
+        recusados.forEach(this::ressincronizarAoConcluir);
+        for (Integer indice : candidatos) {
+            if (recusados.contains(pagamentos.get(indice).getNumero())) {
+                resultados.get(indice).setStatus(StatusPagamento.LIMITE_INSUFICIENTE);
+            }
+        }
+    }
+
+    private long limiteGravado(String numero) {
+        return LimiteCartaoLedger.paraCentavos(cartaoService.buscarLimite(numero));
+    }
+
+    private StatusPagamento avaliarCartao(Pagamento pagamento, CartaoAutorizacaoDTO cartao) {
+        if (cartao == null) {
+            return StatusPagamento.CARTAO_NAO_ENCONTRADO;
+        } else if (!cartao.cpf().equals(pagamento.getCpf())) {
+            return StatusPagamento.CARTAO_NAO_PERTENCE_AO_CLIENTE;
+        } else if (!CvvHasher.confere(cartao.cvvHash(), cartao.numero(), pagamento.getCvv())) {
+            return StatusPagamento.CVV_INCORRETO;
+        }
+        return StatusPagamento.APROVADO;
+    }
+
+    private void recusarSeInvalido(StatusPagamento status) {
+        metricasPagamento.recusar(status);
+        switch (status) {
+            case CARTAO_NAO_ENCONTRADO -> throw new MessageNotFoundException("Cartão inexistente");
+            case CARTAO_NAO_PERTENCE_AO_CLIENTE -> throw new MessageNotFoundException("Cartão não pertence a esse cliente");
+            case CVV_INCORRETO -> throw new MessageNotFoundException("Código CVV incorreto, compra recusada");
+            default -> { }
+        }
+    }
+
+    private void estornarSeDesfeita(String numero, long centavos) {
+        // Devolve a reserva ao ledger se a transacao do pagamento nao for confirmada
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    limiteCartaoLedger.estornar(numero, centavos);
+                }
+            }
+        });
+    }
 
-        return retorno;
+    private void ressincronizarAoConcluir(String numero) {
+        // Registrada depois do estorno: o saldo so e descartado quando esta transacao nao o altera mais,
+        // e a proxima reserva volta a ler o limite gravado
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                limiteCartaoLedger.invalidar(numero);
+            }
+        });
     }
 
 }
@@ -0,0 +1,79 @@
+package com.pagamento.Pagamento.Service;
+
+import com.pagamento.Pagamento.Repository.ParticaoPagamentoJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mantem as particoes mensais de pagamento: cria com antecedencia as dos proximos meses, para que um
+ * INSERT nunca encontre o mes sem particao, e desanexa as que passaram da retencao, tirando-as das
+ * consultas e do autovacuum da tabela. Executado na inicializacao e depois a cada intervalo; varias
+ * instancias podem rodar ao mesmo tempo (a criacao usa IF NOT EXISTS e uma falha so e registrada no log).
+ */
+@Component
+public class ParticoesPagamento {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParticoesPagamento.class);
+
+    private final ParticaoPagamentoJdbcRepository particaoRepository;
+    private final int mesesFuturos;
+    private final int retencaoMeses;
+
+    public ParticoesPagamento(ParticaoPagamentoJdbcRepository particaoRepository,
+                              @Value("${pagamento.particoes.meses-futuros}") int mesesFuturos,
+                              @Value("${pagamento.particoes.retencao-meses}") int retencaoMeses) {
+        this.particaoRepository = particaoRepository;
+        this.mesesFuturos = mesesFuturos;
+        this.retencaoMeses = retencaoMeses;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${pagamento.particoes.intervalo}")
+    public void manter() {
+        manter(YearMonth.now(ZoneOffset.UTC));
+    }
+
+    void manter(YearMonth atual) {
+        List<YearMonth> existentes;
+        try {
+            existentes = particaoRepository.listarMeses();
+        } catch (DataAccessException e) {
+            logger.error("Falha ao listar as particoes de pagamento: {}", e.getMessage());
+            return;
+        }
+
+        Set<YearMonth> meses = new HashSet<>(existentes);
+        for (int i = 0; i <= mesesFuturos; i++) {
+            YearMonth mes = atual.plusMonths(i);
+            if (!meses.contains(mes)) {
+                executar(mes, "criada", () -> particaoRepository.criar(mes));
+            }
+        }
+
+        // retencao-meses = 0: nenhuma particao e desanexada
+        if (retencaoMeses > 0) {
+            YearMonth maisAntigoMantido = atual.minusMonths(retencaoMeses - 1L);
+            existentes.stream().filter(mes -> mes.isBefore(maisAntigoMantido)).sorted()
+                    .forEach(mes -> executar(mes, "desanexada", () -> particaoRepository.desanexar(mes)));
+        }
+    }
+
+    private void executar(YearMonth mes, String resultado, Runnable comando) {
+        String particao = ParticaoPagamentoJdbcRepository.nome(mes);
+        try {
+            comando.run();
+            logger.info("Particao {} {}", particao, resultado);
+        } catch (DataAccessException e) {
+            logger.error("Falha ao manter a particao {}: {}", particao, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.pagamento.Pagamento.Service;
+
+import com.pagamento.Pagamento.Model.EventoPagamento;
+import com.pagamento.Pagamento.Repository.EventoPagamentoJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Drena o outbox evento_pagamento para o {@link EventoPagamentoSink}.
+ *
+ * Cada lote e retirado, publicado e confirmado em uma transacao propria; enquanto os lotes
+ * vierem cheios o relay continua sem esperar o proximo agendamento, entao a vazao e limitada
+ * pelo banco e pelo sink, e nao pelo intervalo. Cada execucao drena no maximo lotes-por-execucao
+ * lotes e devolve a thread ao agendador, que e compartilhado com as demais tarefas @Scheduled.
+ * Varias instancias podem rodar ao mesmo tempo.
+ * Metricas: pagamento.outbox.publicados e pagamento.outbox.falhas.
+ */
+@Component
+public class RelayEventoPagamento {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelayEventoPagamento.class);
+
+    private final EventoPagamentoJdbcRepository eventoPagamentoJdbcRepository;
+    private final EventoPagamentoSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+    private final int lotesPorExecucao;
+    private final Counter publicados;
+    private final Counter falhas;
+
+    public RelayEventoPagamento(EventoPagamentoJdbcRepository eventoPagamentoJdbcRepository, EventoPagamentoSink sink,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${pagamento.outbox.tamanho-lote}") int tamanhoLote,
+                                @Value("${pagamento.outbox.lotes-por-execucao}") int lotesPorExecucao,
+                                MeterRegistry meterRegistry) {
+        this.eventoPagamentoJdbcRepository = eventoPagamentoJdbcRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanhoLote = tamanhoLote;
+        this.lotesPorExecucao = lotesPorExecucao;
+        this.publicados = Counter.builder("pagamento.outbox.publicados").register(meterRegistry);
+        this.falhas = Counter.builder("pagamento.outbox.falhas").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${pagamento.outbox.intervalo}")
+    public void drenar() {
+        try {
+            int publicadosNoLote;
+            int lotes = 0;
+            do {
+                publicadosNoLote = publicarLote();
+            } while (publicadosNoLote == tamanhoLote && ++lotes < lotesPorExecucao);
+        } catch (RuntimeException e) {
+            // O lote volta para a tabela e sera tentado de novo no proximo agendamento
+            falhas.increment();
+            logger.error("Falha ao publicar eventos de pagamento: {}", e.getMessage());
+        }
+    }
+
+    private int publicarLote() {
+        Integer total = transactionTemplate.execute(status -> {
+            List<EventoPagamento> eventos = eventoPagamentoJdbcRepository.retirarLote(tamanhoLote);
+            if (!eventos.isEmpty()) {
+                sink.publicar(eventos);
+            }
+            return eventos.size();
+        });
+        int publicadosNoLote = total == null ? 0 : total;
+        publicados.increment(publicadosNoLote);
+        return publicadosNoLote;
+    }
+}
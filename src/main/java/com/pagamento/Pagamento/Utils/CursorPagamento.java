@@ -0,0 +1,36 @@
+package com.pagamento.Pagamento.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+// Cursor opaco da paginacao por chave (keyset): a posicao (criado_em, chave) do ultimo pagamento devolvido
+public final class CursorPagamento {
+
+    private CursorPagamento() {
+    }
+
+    public record Posicao(Instant criadoEm, UUID chavePagamento) {
+    }
+
+    public static String codificar(Instant criadoEm, UUID chavePagamento) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((criadoEm + "|" + chavePagamento).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Posicao decodificar(String cursor) {
+        try {
+            String posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = posicao.indexOf('|');
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor de paginação inválido: " + cursor);
+            }
+            return new Posicao(Instant.parse(posicao.substring(0, separador)),
+                    UUID.fromString(posicao.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.pagamento.Pagamento.Utils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+// Intervalo [inicio, fim) de criado_em. Os limites vao como parametros simples da consulta, e o Postgres
+// descarta as particoes mensais de pagamento que ficam fora dele
+public record PeriodoPagamentos(Instant inicio, Instant fim) {
+
+    // Datas em UTC, como os meses das particoes; sem data inicial o periodo comeca no primeiro pagamento
+    // e sem data final termina hoje, inclusive
+    public static PeriodoPagamentos de(LocalDate desde, LocalDate ate) {
+        Instant inicio = desde == null ? Instant.EPOCH : desde.atStartOfDay(ZoneOffset.UTC).toInstant();
+        LocalDate ultimoDia = ate == null ? LocalDate.now(ZoneOffset.UTC) : ate;
+        Instant fim = ultimoDia.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        if (!inicio.isBefore(fim)) {
+            throw new IllegalArgumentException("A data inicial deve ser anterior ou igual à data final");
+        }
+        return new PeriodoPagamentos(inicio, fim);
+    }
+
+    // Primeiro dia do mes corrente menos (meses - 1) meses: com meses = 2, o mes atual e o anterior
+    public static LocalDate inicioDosUltimosMeses(int meses) {
+        return LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1).minusMonths(meses - 1L);
+    }
+}
@@ -0,0 +1,55 @@
+package com.pagamento.Pagamento.Utils;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUID versao 7 (RFC 9562): 48 bits de timestamp Unix em milissegundos, 12 bits de contador e 62 bits
+ * aleatorios. Chaves geradas em sequencia sao crescentes, portanto os INSERTs vao sempre para a ultima
+ * folha do indice da chave primaria, em vez de espalhados pela arvore como no UUID aleatorio.
+ *
+ * O par (milissegundo, contador) fica em um unico AtomicLong atualizado por CAS, sem lock: no mesmo
+ * milissegundo o contador e incrementado e, se o relogio voltar, o ultimo valor continua a avancar.
+ * As chaves sao expostas aos clientes, entao os bits aleatorios vem do SecureRandom: cada thread sorteia
+ * 512 bytes de uma vez e consome 8 por chave, o que evita disputar o gerador a cada chamada.
+ */
+public final class UuidV7 {
+
+    private static final AtomicLong ULTIMO = new AtomicLong();
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+    private static final ThreadLocal<ByteBuffer> ALEATORIOS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(512).position(512));
+
+    private UuidV7() {
+    }
+
+    public static UUID gerar() {
+        long agora = System.currentTimeMillis() << 12;
+        long anterior;
+        long proximo;
+        do {
+            anterior = ULTIMO.get();
+            // Estouro do contador (4096 chaves no mesmo milissegundo) avanca o timestamp em 1 ms
+            proximo = agora > anterior ? agora : anterior + 1;
+        } while (!ULTIMO.compareAndSet(anterior, proximo));
+
+        long mostSigBits = ((proximo >>> 12) << 16) | 0x7000L | (proximo & 0xFFFL);
+        long leastSigBits = (aleatorio() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static long aleatorio() {
+        ByteBuffer bytes = ALEATORIOS.get();
+        if (!bytes.hasRemaining()) {
+            ALEATORIO.nextBytes(bytes.array());
+            bytes.clear();
+        }
+        return bytes.getLong();
+    }
+
+    // Milissegundo gravado na chave
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -1,14 +1,15 @@
 package com.pagamento.Usuario.Controller;
 
-import com.pagamento.Usuario.DTO.RegisterRequest;
 import com.pagamento.Usuario.Model.Usuario;
 import com.pagamento.Usuario.Payload.AuthenticationRequest;
 import com.pagamento.Usuario.Payload.AuthenticationResponse;
+import com.pagamento.Usuario.Security.ExecutorCredenciais;
 import com.pagamento.Usuario.Security.JwtUtil;
 import com.pagamento.Usuario.Service.MyUserDetailsService;
 import com.pagamento.Usuario.Service.UsuarioService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -19,7 +20,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -37,24 +40,45 @@ public class AuthenticationController {
     @Autowired
     private UsuarioService userService;
 
+    @Autowired
+    private ExecutorCredenciais executorCredenciais;
+
     @PostMapping("/autenticacao")
-    public ResponseEntity<?> createAuthenticationToken(@Valid @RequestBody AuthenticationRequest authenticationRequest) throws Exception {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(authenticationRequest.getUsername(), authenticationRequest.getPassword())
-        );
-        UserDetails usuario = usuarioService.loadUserByUsername(authenticationRequest.getUsername());
-        if (usuario != null) {
-            final String jwt = jwtUtil.generateToken(usuario.getUsername());
-            return ResponseEntity.ok(new AuthenticationResponse(jwt));
-        } else {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Usuário não encontrado");
-        }
+    public CompletableFuture<ResponseEntity<?>> createAuthenticationToken(@Valid @RequestBody AuthenticationRequest authenticationRequest) {
+        // A verificacao BCrypt roda no pool de credenciais, com concorrencia e fila limitadas
+        return executarNoPoolDeCredenciais(() -> {
+            authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(authenticationRequest.getUsername(), authenticationRequest.getPassword())
+            );
+            UserDetails usuario = usuarioService.loadUserByUsername(authenticationRequest.getUsername());
+            if (usuario != null) {
+                final String jwt = jwtUtil.generateToken(usuario.getUsername());
+                return ResponseEntity.ok(new AuthenticationResponse(jwt));
+            } else {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Usuário não encontrado");
+            }
+        });
     }
 
     @PostMapping("/registrar")
-    public ResponseEntity<?> criarUsuario(@RequestBody Usuario registerRequest) throws Exception {
-        RegisterRequest usuarioSalvo = userService.saveUser(registerRequest);
-        final String jwt = jwtUtil.generateToken(registerRequest.getUsername());
-        return ResponseEntity.ok(new AuthenticationResponse(jwt));
+    public CompletableFuture<ResponseEntity<?>> criarUsuario(@RequestBody Usuario registerRequest) {
+        return executarNoPoolDeCredenciais(() -> {
+            userService.saveUser(registerRequest);
+            final String jwt = jwtUtil.generateToken(registerRequest.getUsername());
+            return ResponseEntity.ok(new AuthenticationResponse(jwt));
+        });
+    }
+
+    // A thread do Tomcat volta para o pool assim que a tarefa e enfileirada; o Spring MVC escreve a resposta,
+    // ou repassa a excecao da tarefa ao GlobalExceptionHandler, quando o future termina
+    private CompletableFuture<ResponseEntity<?>> executarNoPoolDeCredenciais(Callable<ResponseEntity<?>> tarefa) {
+        try {
+            return executorCredenciais.executar(tarefa);
+        } catch (RejectedExecutionException e) {
+            // Fila cheia: recusa imediata em vez de acumular requisicoes esperando pelo hash
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Serviço de autenticação sobrecarregado, tente novamente"));
+        }
     }
-}
\ No newline at end of file
+}
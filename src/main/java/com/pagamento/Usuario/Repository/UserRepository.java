@@ -1,12 +1,18 @@
 package com.pagamento.Usuario.Repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.pagamento.Usuario.Model.Usuario;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface UserRepository extends JpaRepository<Usuario, Long> {
     List<Usuario> findByUsername(String username);
+
+    @Query("SELECT u.username FROM Usuario u WHERE u.username IN :usernames")
+    List<String> findUsernamesCadastrados(@Param("usernames") Collection<String> usernames);
 }
 
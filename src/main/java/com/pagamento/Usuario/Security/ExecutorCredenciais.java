@@ -0,0 +1,75 @@
+package com.pagamento.Usuario.Security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool dedicado ao BCrypt de registro e autenticacao.
+ *
+ * O hash custa dezenas de milissegundos de CPU; rodando sem limite nas threads do Tomcat, um pico
+ * de logins disputa a CPU com os pagamentos. Aqui o numero de threads e o tamanho da fila sao
+ * fixos e, com a fila cheia, a tarefa e recusada na hora (RejectedExecutionException -> 503),
+ * portanto no maximo threads + tamanho-fila requisicoes de credenciais ficam em andamento.
+ * Metricas: executor.* com name=credenciais (inclusive executor.queued, a profundidade da fila)
+ * e credenciais.rejeitadas.
+ *
+ * O resultado e um CompletableFuture: os controllers o devolvem ao Spring MVC e a thread do Tomcat
+ * fica livre enquanto o hash e calculado.
+ */
+@Component
+public class ExecutorCredenciais {
+
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final Counter rejeitadas;
+
+    public ExecutorCredenciais(@Value("${credenciais.hash.threads}") int threads,
+                               @Value("${credenciais.hash.tamanho-fila}") int tamanhoFila,
+                               MeterRegistry meterRegistry) {
+        int totalThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = new ThreadPoolExecutor(totalThreads, totalThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanhoFila), new CustomizableThreadFactory("credenciais-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "credenciais");
+        this.rejeitadas = Counter.builder("credenciais.rejeitadas").register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> executar(Callable<T> tarefa) throws RejectedExecutionException {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    resultado.complete(tarefa.call());
+                } catch (Throwable e) {
+                    resultado.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejeitadas.increment();
+            throw e;
+        }
+        return resultado;
+    }
+
+    public int getThreads() {
+        return pool.getCorePoolSize();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdown();
+    }
+}
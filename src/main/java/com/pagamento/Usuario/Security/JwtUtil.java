@@ -1,6 +1,7 @@
 package com.pagamento.Usuario.Security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +21,9 @@ public class JwtUtil {
     @Value("${jwt.expirationMs}")
     private long expirationMs;
 
+    // Jwts.parser() cria um ObjectMapper a cada chamada; o parser configurado e reaproveitado por thread
+    private final ThreadLocal<JwtParser> parser = ThreadLocal.withInitial(() -> Jwts.parser().setSigningKey(secret));
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -33,8 +37,13 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    // Le e verifica a assinatura uma unica vez; lanca ExpiredJwtException se o token estiver expirado
+    public Claims extrairClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+        return parser.get().parseClaimsJws(token).getBody();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -58,7 +67,10 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        return validateToken(extractAllClaims(token), username);
+    }
+
+    public Boolean validateToken(Claims claims, String username) {
+        return (claims.getSubject().equals(username) && !claims.getExpiration().before(new Date()));
     }
 }
@@ -0,0 +1,10 @@
+package com.pagamento.Usuario.Security;
+
+public enum ModoPrincipal {
+
+    // UserDetails carregado do banco (via cache de usuarios) a cada requisicao
+    BANCO,
+
+    // Principal montado apenas a partir das claims assinadas do token, sem acesso ao banco
+    TOKEN
+}
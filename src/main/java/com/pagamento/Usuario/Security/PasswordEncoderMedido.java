@@ -0,0 +1,41 @@
+package com.pagamento.Usuario.Security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// Publica a latencia de cada hash (encode) e de cada verificacao (matches) em credenciais.hash
+public class PasswordEncoderMedido implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encode;
+    private final Timer matches;
+
+    public PasswordEncoderMedido(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encode = Timer.builder("credenciais.hash")
+                .tag("operacao", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matches = Timer.builder("credenciais.hash")
+                .tag("operacao", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encode.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Boolean confere = matches.record(() -> delegate.matches(rawPassword, encodedPassword));
+        return Boolean.TRUE.equals(confere);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
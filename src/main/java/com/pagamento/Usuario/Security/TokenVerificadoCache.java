@@ -0,0 +1,84 @@
+package com.pagamento.Usuario.Security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claims de tokens JWT ja verificados, para que a assinatura HMAC nao seja refeita a cada requisicao.
+ *
+ * A chave e o SHA-256 do token (o token em si nao fica em memoria) e cada entrada expira no
+ * exp do proprio token, portanto um token expirado nunca e aceito a partir do cache.
+ * Tokens invalidos nao sao armazenados.
+ */
+@Component
+public class TokenVerificadoCache {
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, Claims> tokens;
+
+    public TokenVerificadoCache(JwtUtil jwtUtil,
+                                @Value("${cache.tokens.tamanho-maximo}") long tamanhoMaximo,
+                                MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiraNoExp())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "tokens");
+    }
+
+    public Claims verificar(String token) {
+        String chave = hash(token);
+        Claims claims = tokens.getIfPresent(chave);
+        if (claims == null) {
+            claims = jwtUtil.extrairClaims(token);
+            tokens.put(chave, claims);
+        }
+        return claims;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private static class ExpiraNoExp implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String chave, Claims claims, long agora) {
+            Date expiracao = claims.getExpiration();
+            if (expiracao == null) {
+                return 0;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiracao.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String chave, Claims claims, long agora, long duracaoAtual) {
+            return expireAfterCreate(chave, claims, agora);
+        }
+
+        @Override
+        public long expireAfterRead(String chave, Claims claims, long agora, long duracaoAtual) {
+            return duracaoAtual;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.pagamento.Usuario.Service;
 
+import com.pagamento.Config.CacheConfig;
 import com.pagamento.Usuario.Model.Usuario;
 import com.pagamento.Usuario.Repository.UserRepository;
 import com.pagamento.Usuario.Security.MyUserDetails;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,7 +21,9 @@ public class MyUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    // Chamado a cada requisicao autenticada pelo JwtRequestFilter; usuarios inexistentes nao sao armazenados
     @Override
+    @Cacheable(value = CacheConfig.USUARIOS, key = "#username")
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Optional<Usuario> user = userRepository.findByUsername(username).stream().findFirst();
         if (user.isEmpty()) {
@@ -26,4 +31,8 @@ public class MyUserDetailsService implements UserDetailsService {
         }
         return new MyUserDetails(user.get());
     }
+
+    @CacheEvict(value = CacheConfig.USUARIOS, key = "#username")
+    public void invalidarUsuario(String username) {
+    }
 }
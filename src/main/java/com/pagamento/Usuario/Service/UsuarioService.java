@@ -22,6 +22,9 @@ public class UsuarioService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private MyUserDetailsService myUserDetailsService;
+
     public RegisterRequest saveUser(Usuario registerRequest) throws ResourceNotFoundException {
 
         List<Usuario> user = userRepository.findByUsername(registerRequest.getUsername());
@@ -48,14 +51,20 @@ public class UsuarioService {
 
     public Usuario updateUser(Long id, Usuario userDetails) {
         Usuario user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("Usuário nao encontrado com o id: " + id));
+        String usernameAnterior = user.getUsername();
         user.setUsername(userDetails.getUsername());
-        user.setPassword(userDetails.getPassword());
-        return userRepository.save(user);
+        user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
+        Usuario atualizado = userRepository.save(user);
+        // A senha antiga nao pode continuar valida pelo cache de autenticacao
+        myUserDetailsService.invalidarUsuario(usernameAnterior);
+        myUserDetailsService.invalidarUsuario(atualizado.getUsername());
+        return atualizado;
     }
 
     public void deleteUser(Long id) {
         Usuario user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("Usuário nao encontrado com o id: " + id));
         userRepository.delete(user);
+        myUserDetailsService.invalidarUsuario(user.getUsername());
     }
 
     public RegisterRequest toDTO(Usuario usuario) {
@@ -0,0 +1,72 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indice (numero, criado_em) de pagamento, construido sem bloquear os INSERTs: pagamentos de um cartao por
+ * periodo e as verificacoes da chave estrangeira fk_pagamento_cartao.
+ *
+ * Na tabela particionada o CONCURRENTLY vale por particao: o indice e criado so no pai (ON ONLY, invalido ate
+ * cobrir todas as particoes), construido em cada particao com CONCURRENTLY e anexado ao do pai. As particoes
+ * dependem do mes em que a V7 rodou e CONCURRENTLY nao roda em bloco DO, por isso a migracao e Java e fora
+ * de transacao. Particoes criadas depois do indice do pai ja nascem com ele.
+ */
+public class V8_1__Indice_pagamento_numero_criado_em extends BaseJavaMigration {
+
+    private static final String INDICE = "idx_pagamento_numero_criado_em";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection conexao = context.getConnection();
+        try (Statement comando = conexao.createStatement()) {
+            comando.execute("CREATE INDEX IF NOT EXISTS " + INDICE + " ON ONLY pagamento (numero, criado_em)");
+            for (String particao : particoes(conexao)) {
+                String indice = particao + "_numero_criado_em_idx";
+                // Um CONCURRENTLY interrompido deixa o indice invalido; numa nova execucao ele e refeito
+                if (Boolean.FALSE.equals(valido(conexao, indice))) {
+                    comando.execute("DROP INDEX CONCURRENTLY " + indice);
+                }
+                comando.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + indice + " ON " + particao
+                        + " (numero, criado_em)");
+                comando.execute("ALTER INDEX " + INDICE + " ATTACH PARTITION " + indice);
+            }
+        }
+    }
+
+    private static List<String> particoes(Connection conexao) throws SQLException {
+        List<String> particoes = new ArrayList<>();
+        try (Statement consulta = conexao.createStatement();
+             ResultSet linhas = consulta.executeQuery(
+                     "SELECT inhrelid::regclass::text FROM pg_inherits WHERE inhparent = 'pagamento'::regclass")) {
+            while (linhas.next()) {
+                particoes.add(linhas.getString(1));
+            }
+        }
+        return particoes;
+    }
+
+    // null quando o indice nao existe
+    private static Boolean valido(Connection conexao, String indice) throws SQLException {
+        try (PreparedStatement consulta = conexao.prepareStatement(
+                "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)")) {
+            consulta.setString(1, indice);
+            try (ResultSet linha = consulta.executeQuery()) {
+                return linha.next() ? linha.getBoolean(1) : null;
+            }
+        }
+    }
+}
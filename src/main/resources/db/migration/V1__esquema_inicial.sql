@@ -0,0 +1,83 @@
+-- Esquema que o ddl-auto=update gerava a partir das entidades. Bancos ja criados por ele recebem baseline
+-- na versao 0 (spring.flyway.baseline-on-migrate) e tambem executam esta migracao: o IF NOT EXISTS cria so o
+-- que as versoes anteriores da aplicacao nao tinham (sequences, idempotencia, eventos e o indice por cpf).
+
+CREATE SEQUENCE IF NOT EXISTS endereco_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS usuario_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cliente_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS evento_pagamento_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS endereco (
+    id BIGINT NOT NULL,
+    rua VARCHAR(50) NOT NULL,
+    numero VARCHAR(255) NOT NULL,
+    cep VARCHAR(255) NOT NULL,
+    complemento VARCHAR(255) NOT NULL,
+    CONSTRAINT endereco_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS usuario (
+    id BIGINT NOT NULL,
+    username VARCHAR(255),
+    password VARCHAR(255),
+    CONSTRAINT usuario_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS cliente (
+    id BIGINT NOT NULL,
+    nome VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    cpf VARCHAR(255) NOT NULL,
+    nascimento DATE NOT NULL,
+    endereco_id BIGINT,
+    usuario_id BIGINT,
+    CONSTRAINT cliente_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_cliente_endereco UNIQUE (endereco_id),
+    CONSTRAINT uk_cliente_usuario UNIQUE (usuario_id),
+    CONSTRAINT fk_cliente_endereco FOREIGN KEY (endereco_id) REFERENCES endereco (id),
+    CONSTRAINT fk_cliente_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id)
+);
+
+CREATE TABLE IF NOT EXISTS cartao (
+    numero VARCHAR(255) NOT NULL,
+    cpf VARCHAR(255) NOT NULL,
+    limite NUMERIC(38, 2) NOT NULL,
+    data_validade VARCHAR(255) NOT NULL,
+    cvv VARCHAR(255) NOT NULL,
+    CONSTRAINT cartao_pkey PRIMARY KEY (numero)
+);
+
+CREATE TABLE IF NOT EXISTS pagamento (
+    chave_pagamento UUID NOT NULL,
+    cpf VARCHAR(255) NOT NULL,
+    numero VARCHAR(255) NOT NULL,
+    data_validade VARCHAR(255) NOT NULL,
+    cvv VARCHAR(255) NOT NULL,
+    valor NUMERIC(17, 2) NOT NULL,
+    CONSTRAINT pagamento_pkey PRIMARY KEY (chave_pagamento),
+    CONSTRAINT uk_pagamento_numero UNIQUE (numero)
+);
+
+CREATE INDEX IF NOT EXISTS idx_pagamento_cpf_chave ON pagamento (cpf, chave_pagamento);
+
+-- status_http nulo: chave reservada, requisicao original ainda em processamento.
+-- impressao: HMAC do chamador e do conteudo da requisicao original
+CREATE TABLE IF NOT EXISTS idempotencia_pagamento (
+    chave VARCHAR(255) NOT NULL,
+    status_http INTEGER,
+    corpo TEXT,
+    impressao VARCHAR(64) NOT NULL,
+    criado_em TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT idempotencia_pagamento_pkey PRIMARY KEY (chave)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotencia_criado_em ON idempotencia_pagamento (criado_em);
+
+CREATE TABLE IF NOT EXISTS evento_pagamento (
+    id BIGINT NOT NULL,
+    chave_pagamento UUID NOT NULL,
+    tipo VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    criado_em TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT evento_pagamento_pkey PRIMARY KEY (id)
+);
@@ -0,0 +1,17 @@
+-- Indices das colunas filtradas pelos repositorios. CONCURRENTLY nao bloqueia as escritas durante a
+-- criacao em bancos ja populados; o Flyway executa esta migracao fora de transacao.
+
+-- ClienteRepository.findByCpf/existeCPF/findCpfsCadastrados e o EXISTS de CartaoRepository.autorizarDebito
+CREATE INDEX CONCURRENTLY idx_cliente_cpf ON cliente (cpf);
+
+-- ClienteRepository.findByEmail/findEmailsCadastrados comparam em maiusculas
+CREATE INDEX CONCURRENTLY idx_cliente_email_upper ON cliente (upper(email));
+
+-- EnderecoRepository.findByCep
+CREATE INDEX CONCURRENTLY idx_endereco_cep ON endereco (cep);
+
+-- UserRepository.findByUsername/findUsernamesCadastrados (login e cache de UserDetails)
+CREATE INDEX CONCURRENTLY idx_usuario_username ON usuario (username);
+
+-- CartaoRepository.findByCpf/countCartaoByCpf
+CREATE INDEX CONCURRENTLY idx_cartao_cpf ON cartao (cpf);
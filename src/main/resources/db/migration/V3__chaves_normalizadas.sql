@@ -0,0 +1,32 @@
+-- Chaves de busca gravadas junto com o valor original e preenchidas pelas entidades (@PrePersist/@PreUpdate);
+-- as linhas existentes recebem a mesma normalizacao de com.pagamento.Cliente.Utils.Normalizacao
+
+ALTER TABLE cliente ADD COLUMN cpf_normalizado VARCHAR(255);
+ALTER TABLE cliente ADD COLUMN email_normalizado VARCHAR(255);
+-- String.trim() remove das pontas todo caractere ate U+0020 (tab, quebras de linha), nao so o espaco
+UPDATE cliente SET cpf_normalizado = regexp_replace(cpf, '[^0-9]', '', 'g'),
+                   email_normalizado = lower(regexp_replace(email, '^[\u0001-\u0020]+|[\u0001-\u0020]+$', '', 'g'));
+
+-- A V4 torna as duas chaves unicas: cadastros que so diferiam na formatacao precisam ser unificados antes
+DO $$
+DECLARE
+    colisoes TEXT;
+BEGIN
+    SELECT string_agg(chave || ': ids ' || ids, '; ') INTO colisoes
+    FROM (SELECT 'cpf' AS chave, string_agg(id::text, ', ' ORDER BY id) AS ids
+          FROM cliente GROUP BY cpf_normalizado HAVING count(*) > 1
+          UNION ALL
+          SELECT 'email', string_agg(id::text, ', ' ORDER BY id)
+          FROM cliente GROUP BY email_normalizado HAVING count(*) > 1) repetidos;
+    IF colisoes IS NOT NULL THEN
+        RAISE EXCEPTION 'Clientes com o mesmo CPF ou e-mail normalizado: %', colisoes
+            USING HINT = 'Unifique os cadastros repetidos e execute a migracao novamente';
+    END IF;
+END
+$$;
+ALTER TABLE cliente ALTER COLUMN cpf_normalizado SET NOT NULL;
+ALTER TABLE cliente ALTER COLUMN email_normalizado SET NOT NULL;
+
+ALTER TABLE endereco ADD COLUMN cep_normalizado VARCHAR(255);
+UPDATE endereco SET cep_normalizado = regexp_replace(cep, '[^0-9]', '', 'g');
+ALTER TABLE endereco ALTER COLUMN cep_normalizado SET NOT NULL;
@@ -0,0 +1,11 @@
+-- As buscas por CPF, e-mail e CEP passam a comparar as chaves normalizadas; os indices da V2 sobre as
+-- colunas originais deixam de ser usados. CPF e e-mail normalizados sao unicos (a V3 recusa repeticoes).
+-- Executada fora de transacao, como a V2.
+
+CREATE UNIQUE INDEX CONCURRENTLY idx_cliente_cpf_normalizado ON cliente (cpf_normalizado);
+CREATE UNIQUE INDEX CONCURRENTLY idx_cliente_email_normalizado ON cliente (email_normalizado);
+CREATE INDEX CONCURRENTLY idx_endereco_cep_normalizado ON endereco (cep_normalizado);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_cliente_cpf;
+DROP INDEX CONCURRENTLY IF EXISTS idx_cliente_email_upper;
+DROP INDEX CONCURRENTLY IF EXISTS idx_endereco_cep;
@@ -0,0 +1,6 @@
+-- Instante de criacao do pagamento, preenchido pela entidade (@PrePersist). O DEFAULT now() e avaliado uma
+-- unica vez no ALTER, sem reescrever a tabela: as linhas existentes ficam com o instante da migracao e
+-- mantem entre si a ordem da chave.
+
+ALTER TABLE pagamento ADD COLUMN criado_em TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now();
+ALTER TABLE pagamento ALTER COLUMN criado_em DROP DEFAULT;
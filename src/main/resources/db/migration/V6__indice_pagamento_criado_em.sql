@@ -0,0 +1,6 @@
+-- Historico e exportacao por cliente passam a ser ordenados por (criado_em, chave_pagamento).
+-- Executada fora de transacao, como a V2.
+
+CREATE INDEX CONCURRENTLY idx_pagamento_cpf_criado_em ON pagamento (cpf, criado_em, chave_pagamento);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_pagamento_cpf_chave;
@@ -0,0 +1,64 @@
+-- pagamento passa a ser particionada por faixa mensal de criado_em (meses em UTC, particoes pagamento_pAAAA_MM).
+-- A tabela atual vira a particao do mes corrente sem copiar linhas: cobre de MINVALUE ate o fim do mes.
+--
+-- Em tabela particionada toda chave unica precisa conter criado_em: a chave primaria passa a ser
+-- (chave_pagamento, criado_em) e a unicidade de numero (um unico pagamento por cartao) deixa de existir.
+-- Os meses seguintes sao criados aqui e depois, com antecedencia, por ParticoesPagamento.
+--
+-- Executada fora de transacao (V7__particionamento_pagamento.sql.conf): o indice da nova chave e a CHECK que
+-- antecipa a faixa da particao sao construidos antes da troca sem bloquear as escritas, e o ATTACH, sob
+-- ACCESS EXCLUSIVE, so confere o catalogo. Cada bloco DO e uma transacao; SET LOCAL vale apenas dentro dele.
+
+CREATE UNIQUE INDEX CONCURRENTLY pagamento_chave_criado_em ON pagamento (chave_pagamento, criado_em);
+
+-- NOT VALID so altera o catalogo; o VALIDATE seguinte le a tabela com um lock que nao bloqueia INSERTs.
+-- Um pagamento gravado depois da virada do mes antes da troca seria recusado: nao executar na virada.
+DO $$
+BEGIN
+    SET LOCAL TimeZone = 'UTC';
+    EXECUTE format('ALTER TABLE pagamento ADD CONSTRAINT pagamento_criado_em_particao CHECK (criado_em < %L) NOT VALID',
+                   date_trunc('month', now()) + interval '1 month');
+END
+$$;
+
+ALTER TABLE pagamento VALIDATE CONSTRAINT pagamento_criado_em_particao;
+
+DO $$
+DECLARE
+    mes_atual TIMESTAMPTZ;
+    mes TIMESTAMPTZ;
+    particao_atual TEXT;
+    restricao TEXT;
+BEGIN
+    SET LOCAL TimeZone = 'UTC';
+    mes_atual := date_trunc('month', now());
+    particao_atual := 'pagamento_p' || to_char(mes_atual, 'YYYY_MM');
+
+    EXECUTE format('ALTER TABLE pagamento RENAME TO %I', particao_atual);
+    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT pagamento_pkey', particao_atual);
+    -- uk_pagamento_numero, ou o nome gerado pelo ddl-auto em bancos anteriores a V1
+    FOR restricao IN SELECT conname FROM pg_constraint WHERE conrelid = particao_atual::regclass AND contype = 'u' LOOP
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', particao_atual, restricao);
+    END LOOP;
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I PRIMARY KEY USING INDEX pagamento_chave_criado_em',
+                   particao_atual, particao_atual || '_pkey');
+    EXECUTE format('ALTER INDEX idx_pagamento_cpf_criado_em RENAME TO %I', particao_atual || '_cpf_criado_em_chave_pagamento_idx');
+
+    EXECUTE format('CREATE TABLE pagamento (LIKE %I INCLUDING DEFAULTS) PARTITION BY RANGE (criado_em)',
+                   particao_atual);
+    ALTER TABLE pagamento ADD CONSTRAINT pagamento_pkey PRIMARY KEY (chave_pagamento, criado_em);
+    CREATE INDEX idx_pagamento_cpf_criado_em ON pagamento (cpf, criado_em, chave_pagamento);
+
+    -- A CHECK implica a faixa da particao (inclusive se o mes virou desde o bloco anterior): o ATTACH nao le
+    -- as linhas e adota os indices existentes; depois dele a CHECK e redundante
+    EXECUTE format('ALTER TABLE pagamento ATTACH PARTITION %I FOR VALUES FROM (MINVALUE) TO (%L)',
+                   particao_atual, mes_atual + interval '1 month');
+    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT pagamento_criado_em_particao', particao_atual);
+
+    FOR i IN 1..3 LOOP
+        mes := mes_atual + make_interval(months => i);
+        EXECUTE format('CREATE TABLE %I PARTITION OF pagamento FOR VALUES FROM (%L) TO (%L)',
+                       'pagamento_p' || to_char(mes, 'YYYY_MM'), mes, mes + interval '1 month');
+    END LOOP;
+END
+$$;
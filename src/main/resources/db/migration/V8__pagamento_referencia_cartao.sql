@@ -0,0 +1,12 @@
+-- O pagamento passa a referenciar o cartao pelo numero e deixa de copiar validade e CVV, conferidos apenas na
+-- autorizacao. DROP COLUMN so altera o catalogo: as linhas ja gravadas liberam o espaco quando forem reescritas
+-- (por exemplo, VACUUM FULL da particao); as novas ja saem sem as colunas.
+--
+-- Tabelas particionadas nao aceitam FOREIGN KEY NOT VALID: a validacao da chave estrangeira bloqueia os INSERTs
+-- em pagamento ate o fim desta migracao. O indice (numero, criado_em) e construido em seguida, sem bloqueio,
+-- pela V8_1 (db.migration.V8_1__Indice_pagamento_numero_criado_em).
+
+ALTER TABLE pagamento DROP COLUMN data_validade;
+ALTER TABLE pagamento DROP COLUMN cvv;
+
+ALTER TABLE pagamento ADD CONSTRAINT fk_pagamento_cartao FOREIGN KEY (numero) REFERENCES cartao (numero);
@@ -0,0 +1,20 @@
+-- Bancos criados pelo ddl-auto ja tinham linhas com ids fora das sequences da V1. Com allocationSize 50 o
+-- Hibernate usa os ids (n - 49) .. n depois de um nextval que devolve n, entao basta a sequence partir do
+-- maior id gravado. Sequences que ja passaram do maior id (bancos criados pela V1) nao sao alteradas.
+
+DO $$
+DECLARE
+    sequencias CONSTANT TEXT[][] := ARRAY[['cliente_seq', 'cliente'],
+                                         ['endereco_seq', 'endereco'],
+                                         ['usuario_seq', 'usuario'],
+                                         ['evento_pagamento_seq', 'evento_pagamento']];
+    maior_id BIGINT;
+BEGIN
+    FOR i IN 1 .. array_length(sequencias, 1) LOOP
+        EXECUTE format('SELECT MAX(id) FROM %I', sequencias[i][2]) INTO maior_id;
+        IF maior_id > COALESCE(pg_sequence_last_value(sequencias[i][1]::regclass), 0) THEN
+            PERFORM setval(sequencias[i][1]::regclass, maior_id);
+        END IF;
+    END LOOP;
+END
+$$;
@@ -0,0 +1,69 @@
+package com.pagamento.Cartao.Repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pagamento.utils.BenchmarkPostgres;
+
+/**
+ * Compara a busca exata pela chave primaria com a busca por trecho (LIKE '%numero%')
+ * em uma tabela com 1 milhao de cartoes.
+ *
+ * Executado apenas sob demanda: mvn test -Dbenchmark=true -Dtest=CartaoRepositoryBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CartaoRepositoryBenchmarkTest extends BenchmarkPostgres {
+
+    private static final int TOTAL_CARTOES = 1_000_000;
+    private static final int CONSULTAS = 200;
+
+    @Autowired
+    private CartaoRepository cartaoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Loads 1M cards and measures the average latency of the exact lookup used by the
+     * authorization path against the substring search kept for administration.
+     */
+    @Test
+    void testBuscaExataVersusBuscaPorTrecho() {
+        jdbcTemplate.update("INSERT INTO cartao (numero, cpf, limite, data_validade, cvv) " +
+                "SELECT lpad(g::text, 16, '0'), '33475078007', 1000, '12/29', '123' " +
+                "FROM generate_series(1, ?) g", TOTAL_CARTOES);
+        jdbcTemplate.execute("ANALYZE cartao");
+
+        long exata = medir(numero -> assertTrue(cartaoRepository.findById(numero).isPresent()));
+        long trecho = medir(numero -> assertEquals(1,
+                cartaoRepository.pesquisarPorNumero(numero, PageRequest.of(0, 1)).getNumberOfElements()));
+
+        logger.info("Busca por chave primaria: {} us/consulta", exata / 1_000);
+        logger.info("Busca LIKE '%numero%':  {} us/consulta", trecho / 1_000);
+    }
+
+    private long medir(Consumer<String> consulta) {
+        // Aquecimento antes da medicao
+        for (int i = 0; i < 20; i++) {
+            consulta.accept(numeroAleatorio());
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < CONSULTAS; i++) {
+            consulta.accept(numeroAleatorio());
+        }
+        return (System.nanoTime() - inicio) / CONSULTAS;
+    }
+
+    private static String numeroAleatorio() {
+        return String.format("%016d", ThreadLocalRandom.current().nextInt(1, TOTAL_CARTOES + 1));
+    }
+}
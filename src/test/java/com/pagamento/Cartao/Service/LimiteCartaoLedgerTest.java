@@ -0,0 +1,112 @@
+package com.pagamento.Cartao.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LimiteCartaoLedgerTest {
+
+    private static final String NUMERO = "1234567812345678";
+
+    private LimiteCartaoLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new LimiteCartaoLedger(100_000, Duration.ofMinutes(10));
+    }
+
+    /**
+     * Dispara 10.000 threads contra o mesmo cartao, cada uma reservando 3 centavos de um
+     * limite de 100,00. Somente 3.333 reservas podem ser aprovadas e o saldo nunca fica negativo.
+     */
+    @Test
+    public void testReservaConcorrenteNaoUltrapassaLimite() throws InterruptedException {
+        int totalThreads = 10_000;
+        long limite = LimiteCartaoLedger.paraCentavos(new BigDecimal("100.00"));
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger aprovadas = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>(totalThreads);
+
+        for (int i = 0; i < totalThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (ledger.reservar(NUMERO, 3, () -> limite)) {
+                    aprovadas.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        largada.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(3_333, aprovadas.get());
+        assertEquals(1L, ledger.saldoDisponivel(NUMERO));
+    }
+
+    /**
+     * Reservas em um cartao nao afetam o saldo de outro cartao.
+     */
+    @Test
+    public void testCartoesIndependentes() {
+        assertTrue(ledger.reservar(NUMERO, 1_000, () -> 1_000));
+        assertFalse(ledger.reservar(NUMERO, 1, () -> 1_000));
+        assertTrue(ledger.reservar("8765432187654321", 1_000, () -> 1_000));
+        assertEquals(0L, ledger.saldoDisponivel(NUMERO));
+        assertEquals(0L, ledger.saldoDisponivel("8765432187654321"));
+    }
+
+    /**
+     * O estorno devolve o valor reservado e a invalidacao faz o saldo ser lido novamente.
+     */
+    @Test
+    public void testEstornoEInvalidacao() {
+        assertTrue(ledger.reservar(NUMERO, 700, () -> 1_000));
+        ledger.estornar(NUMERO, 700);
+        assertEquals(1_000L, ledger.saldoDisponivel(NUMERO));
+
+        ledger.invalidar(NUMERO);
+        assertTrue(ledger.reservar(NUMERO, 5_000, () -> 5_000));
+        assertEquals(0L, ledger.saldoDisponivel(NUMERO));
+    }
+
+    /**
+     * Um saldo ocioso alem do tempo configurado e descartado e volta a ser lido na reserva seguinte.
+     */
+    @Test
+    public void testSaldoOciosoEDescartado() {
+        LimiteCartaoLedger semOciosidade = new LimiteCartaoLedger(100_000, Duration.ZERO);
+
+        assertTrue(semOciosidade.reservar(NUMERO, 700, () -> 1_000));
+        assertNull(semOciosidade.saldoDisponivel(NUMERO));
+        assertTrue(semOciosidade.reservar(NUMERO, 700, () -> 1_000));
+    }
+
+    /**
+     * A conversao para centavos descarta fracoes abaixo de um centavo.
+     */
+    @Test
+    public void testParaCentavos() {
+        assertEquals(12_345L, LimiteCartaoLedger.paraCentavos(new BigDecimal("123.45")));
+        assertEquals(100L, LimiteCartaoLedger.paraCentavos(new BigDecimal("1")));
+        assertEquals(99L, LimiteCartaoLedger.paraCentavos(new BigDecimal("0.999")));
+    }
+}
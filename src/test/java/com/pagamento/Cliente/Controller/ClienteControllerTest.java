@@ -1,5 +1,6 @@
 package com.pagamento.Cliente.Controller;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.junit.Assert.assertThrows;
@@ -15,8 +16,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -45,8 +49,7 @@ public class ClienteControllerTest {
     private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine")
 															.withDatabaseName("testdb")
 															.withUsername("admin")
-															.withPassword("admin")
-															.withInitScript("test-data.sql");
+															.withPassword("admin");
 
     /**
      * Initializes the test environment before all tests are executed.
@@ -313,5 +316,16 @@ public class ClienteControllerTest {
     void testeDeletarClienteControllerComErro() throws ResourceNotFoundException{
         assertThrows(ServiceException.class, () -> controller.excluirCliente(0L));
     }
-}
 
+    /**
+     * A importacao roda com o prazo de cliente.importacao.tempo-maximo, e nao com o limite padrao de 30s das
+     * requisicoes assincronas.
+     */
+    @Test
+    void testeImportacaoComPrazoProprio() {
+        WebAsyncTask<Void> tarefa = controller.importarClientes("csv", new MockHttpServletRequest(),
+                new MockHttpServletResponse());
+
+        assertEquals(Duration.ofHours(2).toMillis(), tarefa.getTimeout());
+    }
+}
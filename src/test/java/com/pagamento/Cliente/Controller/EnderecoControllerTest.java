@@ -45,8 +45,7 @@ public class EnderecoControllerTest {
     private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine")
 															.withDatabaseName("testdb")
 															.withUsername("admin")
-															.withPassword("admin")
-															.withInitScript("test-data.sql");
+															.withPassword("admin");
 
     /**
      * Initializes the test environment before all tests are executed.
@@ -0,0 +1,78 @@
+package com.pagamento.Cliente.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pagamento.Cliente.Model.Cliente;
+import com.pagamento.Cliente.Model.Endereco;
+import com.pagamento.Cliente.Repository.ClienteRepository;
+import com.pagamento.Cliente.Repository.EnderecoRepository;
+import com.pagamento.utils.BenchmarkPostgres;
+
+/**
+ * Compara o cadastro de 100 mil clientes (cada um com o seu endereco) linha a linha, um save por
+ * transacao como em criarCliente, com {@link ClienteService#salvarEmLotes(List)}.
+ *
+ * Executado apenas sob demanda: mvn test -Dbenchmark=true -Dtest=ClienteServiceBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ClienteServiceBenchmarkTest extends BenchmarkPostgres {
+
+    private static final int TOTAL_CLIENTES = 100_000;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the same 100k clients with both strategies and compares rows per second.
+     */
+    @Test
+    void testLinhaALinhaVersusEmLotes() {
+        long inicio = System.nanoTime();
+        for (Cliente cliente : clientes("L")) {
+            cliente.setEndereco(enderecoRepository.save(cliente.getEndereco()));
+            clienteRepository.save(cliente);
+        }
+        long linhaALinha = System.nanoTime() - inicio;
+        limpar();
+
+        inicio = System.nanoTime();
+        clienteService.salvarEmLotes(clientes("B"));
+        long emLotes = System.nanoTime() - inicio;
+
+        assertEquals(TOTAL_CLIENTES, clienteRepository.count());
+        logger.info("Linha a linha: {} clientes/s", TOTAL_CLIENTES * 1_000_000_000L / linhaALinha);
+        logger.info("Em lotes:      {} clientes/s", TOTAL_CLIENTES * 1_000_000_000L / emLotes);
+    }
+
+    private static List<Cliente> clientes(String prefixo) {
+        List<Cliente> clientes = new ArrayList<>(TOTAL_CLIENTES);
+        for (int i = 0; i < TOTAL_CLIENTES; i++) {
+            Endereco endereco = new Endereco(0, "Rua das Palmeiras " + i, String.valueOf(i), "01001000", "Casa", null);
+            clientes.add(new Cliente("Cliente Benchmark " + i, prefixo + i + "@teste.com",
+                    String.format("%011d", i), LocalDate.of(1990, 1, 1), endereco, null));
+        }
+        return clientes;
+    }
+
+    private void limpar() {
+        jdbcTemplate.execute("TRUNCATE cliente, endereco");
+    }
+}
@@ -41,8 +41,7 @@ class ClienteServiceTest {
 	private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine")
 															.withDatabaseName("testdb")
 															.withUsername("admin")
-															.withPassword("admin")
-															.withInitScript("test-data.sql");
+															.withPassword("admin");
 
     /**
      * Initializes the test environment before all tests are run.
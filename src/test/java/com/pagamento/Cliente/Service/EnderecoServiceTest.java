@@ -38,8 +38,7 @@ public class EnderecoServiceTest {
     private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine")
                                                                 .withDatabaseName("testdb")
                                                                 .withUsername("admin")
-                                                                .withPassword("admin")
-                                                                .withInitScript("test-data.sql");
+                                                                .withPassword("admin");
 	
                                                                 
 	/**
@@ -0,0 +1,239 @@
+package com.pagamento.Cliente.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Cliente.DTO.ResumoImportacaoDto;
+import com.pagamento.Cliente.Model.Cliente;
+import com.pagamento.Cliente.Repository.ClienteRepository;
+import com.pagamento.Cliente.Utils.CPFValidator;
+import com.pagamento.Usuario.Repository.UserRepository;
+import com.pagamento.Usuario.Security.ExecutorCredenciais;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+class ImportacaoClienteServiceTest {
+
+    private static final String CABECALHO = "nome,email,cpf,nascimento,rua,numero,cep,complemento,username,password";
+
+    private final ClienteService clienteService = mock(ClienteService.class);
+    private final ClienteRepository clienteRepository = mock(ClienteRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private final ExecutorCredenciais executorCredenciais = new ExecutorCredenciais(2, 4, new SimpleMeterRegistry());
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<List<Cliente>> blocosGravados = new ArrayList<>();
+    private ImportacaoClienteService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ImportacaoClienteService(clienteService, clienteRepository, userRepository, new CPFValidator(),
+                Validation.buildDefaultValidatorFactory().getValidator(), passwordEncoder, executorCredenciais,
+                objectMapper);
+        ReflectionTestUtils.setField(service, "tamanhoBloco", 2);
+        when(clienteService.salvarEmLotes(anyList())).thenAnswer(invocacao -> {
+            List<Cliente> clientes = invocacao.getArgument(0);
+            blocosGravados.add(clientes);
+            return clientes;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorCredenciais.encerrar();
+    }
+
+    /**
+     * Linhas validas sao gravadas em blocos, com a senha ja codificada; cada recusa aparece no
+     * relatorio com o numero da linha e o resumo vem por ultimo.
+     */
+    @Test
+    public void testImportarCsvEmBlocos() throws IOException {
+        String csv = String.join("\n", CABECALHO,
+                linhaCsv("Maria da Silva Souza", "maria@teste.com", "33475078007", "maria"),
+                linhaCsv("Joao Pereira Santos", "joao@teste.com", "12345678900", "joao"),
+                linhaCsv("\"Ana, Beatriz Lima\"", "ana@teste.com", "11144477735", "ana"),
+                linhaCsv("Carlos Alberto Dias", "Ana@Teste.com", "52998224725", "carlos"),
+                "",
+                linhaCsv("Pedro Henrique Alves", "pedro@teste.com", "12345678909", "pedro"));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ResumoImportacaoDto resumo = service.importar(entrada(csv), FormatoImportacao.CSV, saida);
+
+        assertEquals(new ResumoImportacaoDto(5, 3, 2), resumo);
+        List<String> relatorio = saida.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(List.of(
+                "{\"linha\":3,\"erro\":\"CPF inválido\"}",
+                "{\"linha\":5,\"erro\":\"E-mail já cadastrado: Ana@Teste.com\"}",
+                "{\"total\":5,\"importados\":3,\"rejeitados\":2}"), relatorio);
+
+        verify(clienteService, times(3)).salvarEmLotes(anyList());
+        Cliente ana = blocosGravados.get(1).get(0);
+        assertEquals("Ana, Beatriz Lima", ana.getNome());
+        assertTrue(passwordEncoder.matches("senha123", ana.getUsuario().getPassword()));
+    }
+
+    /**
+     * CPFs, e-mails e usernames ja cadastrados no banco sao recusados; JSON invalido vira erro da linha.
+     */
+    @Test
+    public void testImportarNdjsonComDuplicadosNoBanco() throws IOException {
+        when(clienteRepository.findCpfsCadastrados(any())).thenReturn(List.of("33475078007"));
+        when(userRepository.findUsernamesCadastrados(any())).thenReturn(List.of("ana"));
+        String ndjson = String.join("\n",
+                linhaJson("Maria da Silva Souza", "maria@teste.com", "33475078007", "maria"),
+                "{\"nome\": ",
+                linhaJson("Ana Beatriz Lima Reis", "ana@teste.com", "11144477735", "ana"),
+                linhaJson("Pedro Henrique Alves", "pedro@teste.com", "12345678909", "pedro"));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ResumoImportacaoDto resumo = service.importar(entrada(ndjson), FormatoImportacao.NDJSON, saida);
+
+        assertEquals(new ResumoImportacaoDto(4, 1, 3), resumo);
+        List<String> relatorio = saida.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals("{\"linha\":1,\"erro\":\"CPF já cadastrado: 33475078007\"}", relatorio.get(0));
+        assertTrue(relatorio.get(1).startsWith("{\"linha\":2,\"erro\":\"JSON inválido"));
+        assertEquals("{\"linha\":3,\"erro\":\"Usuário já cadastrado: ana\"}", relatorio.get(2));
+        assertEquals("Pedro Henrique Alves", blocosGravados.get(0).get(0).getNome());
+    }
+
+    /**
+     * Uma falha ao gravar o bloco recusa todas as linhas validas dele, sem expor a mensagem do banco, e a
+     * importacao segue no proximo bloco.
+     */
+    @Test
+    public void testFalhaNaGravacaoRecusaOBloco() throws IOException {
+        when(clienteService.salvarEmLotes(anyList()))
+                .thenThrow(new IllegalStateException("conexao perdida"))
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+        String csv = String.join("\n", CABECALHO,
+                linhaCsv("Maria da Silva Souza", "maria@teste.com", "33475078007", "maria"),
+                linhaCsv("Ana Beatriz Lima Reis", "ana@teste.com", "11144477735", "ana"),
+                linhaCsv("Pedro Henrique Alves", "pedro@teste.com", "12345678909", "pedro"));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ResumoImportacaoDto resumo = service.importar(entrada(csv), FormatoImportacao.CSV, saida);
+
+        assertEquals(new ResumoImportacaoDto(3, 1, 2), resumo);
+        List<String> relatorio = saida.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals("{\"linha\":2,\"erro\":\"Bloco não gravado\"}", relatorio.get(0));
+        assertEquals("{\"linha\":3,\"erro\":\"Bloco não gravado\"}", relatorio.get(1));
+    }
+
+    /**
+     * Um e-mail gravado por outro cadastro depois da conferencia faz o indice unico recusar o bloco: as linhas
+     * sao gravadas uma a uma, com entidades novas, e so a que conflita e recusada.
+     */
+    @Test
+    public void testViolacaoDeUnicidadeGravaLinhaALinha() throws IOException {
+        ConstraintViolationException violacao = new ConstraintViolationException("duplicate key",
+                new SQLException("duplicate key", "23505"), "idx_cliente_email_normalizado");
+        doAnswer(invocacao -> {
+            List<Cliente> clientes = invocacao.getArgument(0);
+            if (clientes.stream().anyMatch(c -> c.getEmail().equals("ana@teste.com"))) {
+                // O persist ja tinha atribuido ids quando o flush falhou
+                clientes.forEach(c -> c.getEndereco().setId(51));
+                throw new DataIntegrityViolationException("duplicate key", violacao);
+            }
+            blocosGravados.add(clientes);
+            return clientes;
+        }).when(clienteService).salvarEmLotes(anyList());
+        String csv = String.join("\n", CABECALHO,
+                linhaCsv("Maria da Silva Souza", "maria@teste.com", "33475078007", "maria"),
+                linhaCsv("Ana Beatriz Lima Reis", "ana@teste.com", "11144477735", "ana"),
+                linhaCsv("Pedro Henrique Alves", "pedro@teste.com", "12345678909", "pedro"));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ResumoImportacaoDto resumo = service.importar(entrada(csv), FormatoImportacao.CSV, saida);
+
+        assertEquals(new ResumoImportacaoDto(3, 2, 1), resumo);
+        List<String> relatorio = saida.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals("{\"linha\":3,\"erro\":\"E-mail já cadastrado: ana@teste.com\"}", relatorio.get(0));
+        // Bloco [maria, ana] recusado, depois [maria], [ana] e o bloco seguinte [pedro]
+        verify(clienteService, times(4)).salvarEmLotes(anyList());
+        Cliente maria = blocosGravados.get(0).get(0);
+        assertEquals("Maria da Silva Souza", maria.getNome());
+        assertEquals(0, maria.getEndereco().getId());
+        assertTrue(passwordEncoder.matches("senha123", maria.getUsuario().getPassword()));
+    }
+
+    /**
+     * Um campo entre aspas pode continuar nas linhas seguintes; o relatorio usa a linha em que o registro comeca.
+     */
+    @Test
+    public void testCampoCsvComQuebraDeLinha() throws IOException {
+        String csv = String.join("\n", CABECALHO,
+                "Maria da Silva Souza,maria@teste.com,33475078007,1990-05-20,Rua das Palmeiras,100,01001000,"
+                        + "\"Casa 2\nFundos, \"\"portao azul\"\"\",maria,senha123",
+                linhaCsv("Joao Pereira Santos", "joao@teste.com", "12345678900", "joao"),
+                "Ana Beatriz Lima Reis,ana@teste.com,11144477735,1990-05-20,\"Rua sem fim,100,01001000,Casa,ana,senha123");
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ResumoImportacaoDto resumo = service.importar(entrada(csv), FormatoImportacao.CSV, saida);
+
+        assertEquals(new ResumoImportacaoDto(3, 1, 2), resumo);
+        List<String> relatorio = saida.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals("{\"linha\":4,\"erro\":\"CPF inválido\"}", relatorio.get(0));
+        assertEquals("{\"linha\":5,\"erro\":\"Campo entre aspas não fechado\"}", relatorio.get(1));
+        Cliente maria = blocosGravados.get(0).get(0);
+        assertEquals("Casa 2\nFundos, \"portao azul\"", maria.getEndereco().getComplemento());
+        assertEquals("maria", maria.getUsuario().getUsername());
+    }
+
+    /**
+     * Sem as colunas obrigatorias no cabecalho nada e gravado.
+     */
+    @Test
+    public void testCabecalhoCsvIncompleto() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ResumoImportacaoDto resumo = service.importar(entrada("nome,email,cpf\nMaria,maria@teste.com,33475078007"),
+                FormatoImportacao.CSV, saida);
+
+        assertEquals(new ResumoImportacaoDto(0, 0, 0), resumo);
+        assertTrue(saida.toString(StandardCharsets.UTF_8)
+                .startsWith("{\"linha\":1,\"erro\":\"Coluna obrigatória ausente no CSV: nascimento\"}"));
+        verify(clienteService, never()).salvarEmLotes(anyList());
+    }
+
+    private static String linhaCsv(String nome, String email, String cpf, String username) {
+        return String.join(",", nome, email, cpf, "1990-05-20", "Rua das Palmeiras", "100", "01001000", "Casa",
+                username, "senha123");
+    }
+
+    private static String linhaJson(String nome, String email, String cpf, String username) {
+        return "{\"nome\":\"" + nome + "\",\"email\":\"" + email + "\",\"cpf\":\"" + cpf
+                + "\",\"nascimento\":\"1990-05-20\",\"rua\":\"Rua das Palmeiras\",\"numero\":\"100\","
+                + "\"cep\":\"01001000\",\"complemento\":\"Casa\",\"username\":\"" + username
+                + "\",\"password\":\"senha123\"}";
+    }
+
+    private static ByteArrayInputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
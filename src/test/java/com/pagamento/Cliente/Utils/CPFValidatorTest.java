@@ -0,0 +1,107 @@
+package com.pagamento.Cliente.Utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+class CPFValidatorTest {
+
+    private final CPFValidator validator = new CPFValidator();
+
+    /**
+     * CPFs com digitos verificadores corretos sao aceitos, inclusive como StringBuilder.
+     */
+    @Test
+    public void testCpfValido() {
+        assertTrue(validator.validarCPF("33475078007"));
+        assertTrue(validator.validarCPF("52998224725"));
+        assertTrue(validator.validarCPF(new StringBuilder("33475078007")));
+    }
+
+    /**
+     * Nulo, tamanho diferente de 11, caracteres nao numericos e digitos verificadores errados sao recusados.
+     */
+    @Test
+    public void testCpfInvalido() {
+        assertFalse(validator.validarCPF((String) null));
+        assertFalse(validator.validarCPF(""));
+        assertFalse(validator.validarCPF("3347507800"));
+        assertFalse(validator.validarCPF("334750780070"));
+        assertFalse(validator.validarCPF("334.750.780-07"));
+        assertFalse(validator.validarCPF("3347507800a"));
+        assertFalse(validator.validarCPF("33475078008"));
+        assertFalse(validator.validarCPF("33475078017"));
+        // Digitos unicode nao sao aceitos, assim como no \d da implementacao anterior
+        assertFalse(validator.validarCPF("٣٣475078007"));
+    }
+
+    /**
+     * Para 200.000 entradas aleatorias o resultado e o mesmo da implementacao anterior baseada em regex.
+     */
+    @Test
+    public void testMesmoResultadoDaImplementacaoAnterior() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder cpf = new StringBuilder();
+            int tamanho = 10 + random.nextInt(3);
+            for (int j = 0; j < tamanho; j++) {
+                cpf.append(random.nextInt(20) == 0 ? 'x' : (char) ('0' + random.nextInt(10)));
+            }
+            // Forca uma parte das entradas a ter o primeiro digito verificador correto
+            if (tamanho == 11 && i % 2 == 0) {
+                cpf.setCharAt(9, (char) ('0' + primeiroDigitoAnterior(cpf.toString())));
+            }
+            assertEquals(validarAnterior(cpf.toString()), validator.validarCPF(cpf.toString()), cpf.toString());
+        }
+    }
+
+    /**
+     * As APIs em massa devolvem o resultado de cada CPF na ordem recebida e separam validos de invalidos.
+     */
+    @Test
+    public void testValidacaoEmMassa() {
+        String[] cpfs = {"33475078007", "33475078008", null, "52998224725"};
+        assertArrayEquals(new boolean[]{true, false, false, true}, validator.validarCPFs(cpfs));
+
+        List<String> validos = new ArrayList<>();
+        List<String> invalidos = new ArrayList<>();
+        validator.separarCPFs(Stream.of("33475078007", "123", "52998224725"), validos::add, invalidos::add);
+        assertEquals(List.of("33475078007", "52998224725"), validos);
+        assertEquals(List.of("123"), invalidos);
+    }
+
+    private static boolean validarAnterior(String cpf) {
+        if (cpf == null || !Pattern.matches("\\d{11}", cpf)) {
+            return false;
+        }
+        return digitoAnterior(cpf, 9) == Character.getNumericValue(cpf.charAt(9))
+                && digitoAnterior(cpf, 10) == Character.getNumericValue(cpf.charAt(10));
+    }
+
+    private static int primeiroDigitoAnterior(String cpf) {
+        for (int i = 0; i < 9; i++) {
+            if (!Character.isDigit(cpf.charAt(i)) || cpf.charAt(i) > '9') {
+                return 0;
+            }
+        }
+        return digitoAnterior(cpf, 9);
+    }
+
+    private static int digitoAnterior(String cpf, int posicoes) {
+        int total = 0;
+        for (int i = 0; i < posicoes; i++) {
+            total += Character.getNumericValue(cpf.charAt(i)) * (posicoes + 1 - i);
+        }
+        int resto = total % 11;
+        return (resto < 2) ? 0 : (11 - resto);
+    }
+}
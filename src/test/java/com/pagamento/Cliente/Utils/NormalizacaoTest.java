@@ -0,0 +1,38 @@
+package com.pagamento.Cliente.Utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class NormalizacaoTest {
+
+    /**
+     * CPF e CEP com ou sem pontuacao tem a mesma chave; valores ja normalizados sao devolvidos sem copia.
+     */
+    @Test
+    public void testDigitos() {
+        assertEquals("33475078007", Normalizacao.digitos("334.750.780-07"));
+        assertEquals("33475078007", Normalizacao.digitos(" 334 750 780 07 "));
+        assertEquals("01001000", Normalizacao.digitos("01001-000"));
+        assertEquals("", Normalizacao.digitos("abc"));
+        // Digitos unicode nao entram na chave, assim como no [^0-9] da migracao
+        assertEquals("47", Normalizacao.digitos("٣4٣7"));
+
+        String normalizado = "33475078007";
+        assertSame(normalizado, Normalizacao.digitos(normalizado));
+        assertNull(Normalizacao.digitos(null));
+    }
+
+    /**
+     * E-mails diferentes apenas em maiusculas ou espacos, tabs e quebras de linha nas pontas tem a mesma chave.
+     */
+    @Test
+    public void testEmail() {
+        assertEquals("maria@teste.com", Normalizacao.email("Maria@Teste.COM"));
+        assertEquals("maria@teste.com", Normalizacao.email("  maria@teste.com "));
+        assertEquals("maria@teste.com", Normalizacao.email("\tmaria@teste.com\r\n"));
+        assertNull(Normalizacao.email(null));
+    }
+}
@@ -0,0 +1,216 @@
+package com.pagamento.Config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.pagamento.Pagamento.Model.IdempotenciaPagamento;
+import com.pagamento.Pagamento.Repository.IdempotenciaPagamentoRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Roteamento entre primario e replica com dois containers Postgres independentes; cada um tem uma
+ * tabela origem com o proprio nome, portanto a consulta mostra qual pool atendeu a transacao. As
+ * migracoes rodam apenas no primario: as tabelas da aplicacao nao existem na replica.
+ */
+@SpringBootTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@Testcontainers
+class ReplicaLeituraConfigTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> primario = new PostgreSQLContainer<>("postgres:16-alpine")
+                                                           .withDatabaseName("testdb")
+                                                           .withUsername("admin")
+                                                           .withPassword("admin");
+
+    @Container
+    private static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16-alpine")
+                                                          .withDatabaseName("testdb")
+                                                          .withUsername("admin")
+                                                          .withPassword("admin");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("dataSourcePrimario")
+    private DataSource dataSourcePrimario;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MonitorReplica monitorReplica;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ConsultaOrigem consultaOrigem;
+
+    @Autowired
+    private IdempotenciaPagamentoRepository idempotenciaPagamentoRepository;
+
+    /**
+     * Starts the containers before all tests are run.
+     */
+    @BeforeAll
+    static void beforeAll() {
+        primario.start();
+        replica.start();
+    }
+
+    /**
+     * Points the primary pool and the replica pool at the two containers.
+     *
+     * @param dynamicPropertyRegistry the registry to add the dynamic properties to
+     */
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", primario::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", primario::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", primario::getPassword);
+        dynamicPropertyRegistry.add("spring.datasource.replica.jdbc-url", replica::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.replica.username", replica::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.replica.password", replica::getPassword);
+    }
+
+    /**
+     * Closes the containers after the tests have been executed.
+     */
+    @AfterAll
+    static void tearDown() {
+        primario.close();
+        replica.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        marcarOrigem(dataSourcePrimario, "primario");
+        // O pool da replica e somente leitura: a tabela e criada por uma conexao direta
+        marcarOrigem(new DriverManagerDataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()),
+                "replica");
+        monitorReplica.verificar();
+    }
+
+    /**
+     * Transacoes readOnly de metodos @LeituraReplica sao atendidas pela replica; readOnly sem a anotacao e
+     * escritas ficam no primario.
+     */
+    @Test
+    public void testLeituraNaReplicaEscritaNoPrimario() {
+        assertTrue(monitorReplica.isDisponivel());
+        assertEquals("replica", consultaOrigem.lerNaReplica());
+        assertEquals("primario", consultaOrigem.lerSemAnotacao());
+        assertEquals("primario", origem());
+    }
+
+    /**
+     * A busca da Idempotency-Key fora de transacao usa a transacao readOnly implicita do repositorio e ainda
+     * assim vai ao primario: a tabela idempotencia_pagamento so existe nele.
+     */
+    @Test
+    public void testIdempotenciaForaDeTransacaoNoPrimario() {
+        String chave = UUID.randomUUID().toString();
+        idempotenciaPagamentoRepository.save(new IdempotenciaPagamento(chave, 200, "{}", "impressao", Instant.now()));
+
+        assertTrue(idempotenciaPagamentoRepository.findById(chave).isPresent());
+    }
+
+    /**
+     * Cada pool publica as proprias metricas do Hikari.
+     */
+    @Test
+    public void testMetricasPorPool() {
+        consultaOrigem.lerNaReplica();
+        origem();
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primario").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica").gauge());
+    }
+
+    /**
+     * Com a replica fora do ar as leituras voltam para o primario. Executado por ultimo: para a replica.
+     */
+    @Test
+    @Order(Integer.MAX_VALUE)
+    public void testReplicaIndisponivelVoltaParaPrimario() {
+        replica.stop();
+        monitorReplica.verificar();
+
+        assertFalse(monitorReplica.isDisponivel());
+        assertEquals("primario", consultaOrigem.lerNaReplica());
+    }
+
+    @TestConfiguration
+    static class Configuracao {
+
+        @Bean
+        ConsultaOrigem consultaOrigem(DataSource dataSource) {
+            return new ConsultaOrigem(dataSource);
+        }
+    }
+
+    // Mesma consulta com e sem @LeituraReplica, ambas em transacao readOnly
+    static class ConsultaOrigem {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        ConsultaOrigem(DataSource dataSource) {
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+        }
+
+        @LeituraReplica
+        @Transactional(readOnly = true)
+        public String lerNaReplica() {
+            return jdbcTemplate.queryForObject("SELECT nome FROM origem", String.class);
+        }
+
+        @Transactional(readOnly = true)
+        public String lerSemAnotacao() {
+            return jdbcTemplate.queryForObject("SELECT nome FROM origem", String.class);
+        }
+    }
+
+    private String origem() {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT nome FROM origem", String.class));
+    }
+
+    private static void marcarOrigem(DataSource dataSource, String nome) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS origem");
+        jdbcTemplate.execute("CREATE TABLE origem (nome VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO origem VALUES (?)", nome);
+    }
+}
@@ -0,0 +1,142 @@
+package com.pagamento.Pagamento.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Config.CacheConfig;
+import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Repository.IdempotenciaPagamentoRepository;
+import com.pagamento.Pagamento.Service.IdempotenciaService;
+import com.pagamento.Pagamento.Service.LimitadorTaxaPagamento;
+import com.pagamento.Pagamento.Service.PagamentoService;
+
+class PagamentoControllerTest {
+
+    private static final String CPF = "33475078007";
+    private static final String NUMERO = "1234567812345678";
+    private static final String CHAVE = "9b2f1c1e-0d1f-4a55-9b8c-3a4b5c6d7e8f";
+    private static final String OUTRA_CHAVE = "0c3e2d2f-1e2a-4b66-8c9d-4b5c6d7e8f90";
+
+    private final PagamentoService pagamentoService = mock(PagamentoService.class);
+    private final IdempotenciaPagamentoRepository idempotenciaRepository = mock(IdempotenciaPagamentoRepository.class);
+    private final LimitadorTaxaPagamento limitador = mock(LimitadorTaxaPagamento.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private PagamentoController controller;
+
+    @BeforeEach
+    void setUp() {
+        IdempotenciaService idempotenciaService = new IdempotenciaService(idempotenciaRepository, objectMapper,
+                new ConcurrentMapCacheManager(CacheConfig.IDEMPOTENCIA), "segredo-de-teste");
+        ReflectionTestUtils.setField(idempotenciaService, "espera", Duration.ofMillis(200));
+        controller = new PagamentoController(pagamentoService, idempotenciaService, limitador);
+        ReflectionTestUtils.setField(controller, "tamanhoMaximoLote", 3);
+        when(idempotenciaRepository.reservar(anyString(), anyString(), any())).thenReturn(1);
+        when(pagamentoService.cadastrarPagamento(any())).thenAnswer(invocacao -> invocacao.getArgument(0));
+    }
+
+    /**
+     * O reenvio de uma Idempotency-Key ja registrada e respondido sem consumir o limite de taxa.
+     */
+    @Test
+    public void testReenvioIdempotenteNaoConsomeLimiteDeTaxa() {
+        ResponseEntity<?> original = controller.cadastrarPagamento(pagamento(), CHAVE);
+        // A partir daqui o CPF e o cartao estariam acima da taxa
+        when(limitador.consumir(CPF, NUMERO)).thenReturn(TimeUnit.SECONDS.toNanos(1));
+        ResponseEntity<?> reenvio = controller.cadastrarPagamento(pagamento(), CHAVE);
+
+        assertEquals(HttpStatus.OK, original.getStatusCode());
+        assertEquals(HttpStatus.OK, reenvio.getStatusCode());
+        assertEquals("true", reenvio.getHeaders().getFirst(IdempotenciaService.CABECALHO_REENVIO));
+        verify(limitador, times(1)).consumir(CPF, NUMERO);
+        verify(pagamentoService, times(1)).cadastrarPagamento(any());
+    }
+
+    /**
+     * Uma recusa por limite de taxa nao e registrada: a mesma chave e processada na tentativa seguinte.
+     */
+    @Test
+    public void testRecusaPorTaxaNaoERegistrada() {
+        when(limitador.consumir(CPF, NUMERO)).thenReturn(TimeUnit.SECONDS.toNanos(1), 0L);
+
+        ResponseEntity<?> recusada = controller.cadastrarPagamento(pagamento(), CHAVE);
+        ResponseEntity<?> nova = controller.cadastrarPagamento(pagamento(), CHAVE);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, recusada.getStatusCode());
+        assertEquals("1", recusada.getHeaders().getFirst("Retry-After"));
+        assertEquals(HttpStatus.OK, nova.getStatusCode());
+        assertNull(nova.getHeaders().getFirst(IdempotenciaService.CABECALHO_REENVIO));
+        verify(idempotenciaRepository, times(1)).liberar(CHAVE);
+        verify(idempotenciaRepository, times(1)).concluir(eq(CHAVE), eq(200), anyString());
+    }
+
+    /**
+     * Dois pagamentos no mesmo cartao: nem as respostas nem os corpos guardados para reenvio trazem a validade,
+     * o CVV ou o numero completo do cartao.
+     */
+    @Test
+    public void testPagamentosNoMesmoCartaoNaoExpoemDadosSensiveis() throws JsonProcessingException {
+        ResponseEntity<?> primeiro = controller.cadastrarPagamento(pagamento(), CHAVE);
+        ResponseEntity<?> segundo = controller.cadastrarPagamento(pagamento(), OUTRA_CHAVE);
+
+        assertEquals(HttpStatus.OK, primeiro.getStatusCode());
+        assertEquals(HttpStatus.OK, segundo.getStatusCode());
+        ArgumentCaptor<String> registros = ArgumentCaptor.forClass(String.class);
+        verify(idempotenciaRepository, times(2)).concluir(anyString(), eq(200), registros.capture());
+        List<String> corpos = new ArrayList<>();
+        corpos.add(objectMapper.writeValueAsString(primeiro.getBody()));
+        corpos.add(objectMapper.writeValueAsString(segundo.getBody()));
+        corpos.addAll(registros.getAllValues());
+        for (String corpo : corpos) {
+            assertFalse(corpo.contains("cvv"), corpo);
+            assertFalse(corpo.contains("data_validade"), corpo);
+            assertFalse(corpo.contains(NUMERO), corpo);
+            assertTrue(corpo.contains("\"numero\":\"************5678\""), corpo);
+        }
+    }
+
+    /**
+     * Um lote vazio ou acima do tamanho maximo e recusado com 400 sem chegar ao servico.
+     */
+    @Test
+    public void testLoteForaDoTamanhoPermitido() {
+        ResponseEntity<?> vazio = controller.cadastrarPagamentosEmLote(List.of());
+        ResponseEntity<?> grande = controller.cadastrarPagamentosEmLote(Collections.nCopies(4, pagamento()));
+
+        assertEquals(HttpStatus.BAD_REQUEST, vazio.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, grande.getStatusCode());
+        assertEquals("O lote deve conter entre 1 e 3 pagamentos", grande.getBody());
+        verify(pagamentoService, never()).cadastrarPagamentosEmLote(any());
+    }
+
+    private static Pagamento pagamento() {
+        return new Pagamento(null, CPF, NUMERO, "12/29", "123", new BigDecimal("10.00"), null);
+    }
+}
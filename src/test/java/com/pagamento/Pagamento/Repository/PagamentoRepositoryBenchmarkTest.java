@@ -0,0 +1,106 @@
+package com.pagamento.Pagamento.Repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pagamento.Pagamento.Utils.UuidV7;
+import com.pagamento.utils.BenchmarkPostgres;
+
+/**
+ * Compara a vazao de INSERTs em duas copias da tabela pagamento ja carregadas com 50 milhoes de linhas:
+ * uma com chaves UUID aleatorias (versao 4, o GenerationType.UUID anterior) e outra com chaves UUIDv7.
+ * Alem de linhas por segundo, mostra o WAL gerado e o tamanho final da chave primaria.
+ *
+ * Executado apenas sob demanda: mvn test -Dbenchmark=true -Dtest=PagamentoRepositoryBenchmarkTest
+ * O tamanho da carga e das insercoes pode ser reduzido com -Dbenchmark.linhas=... e -Dbenchmark.insercoes=...
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PagamentoRepositoryBenchmarkTest extends BenchmarkPostgres {
+
+    private static final long TOTAL_LINHAS = Long.getLong("benchmark.linhas", 50_000_000L);
+    private static final int TOTAL_INSERCOES = Integer.getInteger("benchmark.insercoes", 1_000_000);
+    private static final int TAMANHO_LOTE = 1_000;
+
+    private static final String INSERIR = "INSERT INTO %s (chave_pagamento, cpf, numero, valor, criado_em) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Loads both tables and inserts the same number of payments into each, in batches, comparing
+     * rows per second and WAL volume.
+     */
+    @Test
+    void testChavesAleatoriasVersusOrdenadas() {
+        // Carga historica com chaves v7 de um dia atras, mesma forma das geradas pela aplicacao
+        carregar("pagamento_aleatorio", "gen_random_uuid()");
+        carregar("pagamento_ordenado", "(lpad(to_hex(inicio_ms + i / 4096), 12, '0') || '7' "
+                + "|| lpad(to_hex(i % 4096), 3, '0') || '8' || substr(md5(i::text), 1, 15))::uuid");
+        jdbcTemplate.execute("CHECKPOINT");
+
+        Resultado aleatorio = inserir("pagamento_aleatorio", UUID::randomUUID);
+        Resultado ordenado = inserir("pagamento_ordenado", UuidV7::gerar);
+
+        long esperado = TOTAL_LINHAS + TOTAL_INSERCOES;
+        assertEquals(esperado, jdbcTemplate.queryForObject("SELECT count(*) FROM pagamento_aleatorio", Long.class));
+        assertEquals(esperado, jdbcTemplate.queryForObject("SELECT count(*) FROM pagamento_ordenado", Long.class));
+        logger.info("Carga: {} linhas, insercoes: {} em lotes de {}", TOTAL_LINHAS, TOTAL_INSERCOES, TAMANHO_LOTE);
+        logger.info("UUID aleatorio: {}", aleatorio);
+        logger.info("UUIDv7:         {}", ordenado);
+    }
+
+    // Tabela com as colunas de pagamento; os indices sao criados depois da carga, como em um restore
+    private void carregar(String tabela, String chave) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + tabela);
+        jdbcTemplate.execute("CREATE TABLE " + tabela + " (LIKE pagamento INCLUDING DEFAULTS)");
+        jdbcTemplate.execute("INSERT INTO " + tabela + " (chave_pagamento, cpf, numero, valor, criado_em) "
+                + "SELECT " + chave + ", lpad((i % 1000000)::text, 11, '0'), lpad(i::text, 16, '0'), 10.00, "
+                + "now() - interval '1 day' + i * interval '1 microsecond' "
+                + "FROM (SELECT (extract(epoch FROM now() - interval '1 day') * 1000)::bigint AS inicio_ms) base, "
+                + "generate_series(1, " + TOTAL_LINHAS + ") i");
+        jdbcTemplate.execute("ALTER TABLE " + tabela + " ADD PRIMARY KEY (chave_pagamento)");
+        jdbcTemplate.execute("CREATE INDEX ON " + tabela + " (cpf, criado_em, chave_pagamento)");
+        jdbcTemplate.execute("VACUUM ANALYZE " + tabela);
+    }
+
+    private Resultado inserir(String tabela, Supplier<UUID> chaves) {
+        String wal = jdbcTemplate.queryForObject("SELECT pg_current_wal_insert_lsn()::text", String.class);
+        long inicio = System.nanoTime();
+        for (long lote = 0; lote < TOTAL_INSERCOES; lote += TAMANHO_LOTE) {
+            List<Object[]> linhas = new ArrayList<>(TAMANHO_LOTE);
+            for (long i = TOTAL_LINHAS + lote + 1; i <= TOTAL_LINHAS + lote + TAMANHO_LOTE; i++) {
+                linhas.add(new Object[] {chaves.get(), String.format("%011d", i % 1_000_000),
+                        String.format("%016d", i), BigDecimal.TEN, Timestamp.from(Instant.now())});
+            }
+            jdbcTemplate.batchUpdate(INSERIR.formatted(tabela), linhas);
+        }
+        long duracao = System.nanoTime() - inicio;
+        Long bytesWal = jdbcTemplate.queryForObject(
+                "SELECT pg_wal_lsn_diff(pg_current_wal_insert_lsn(), ?::pg_lsn)::bigint", Long.class, wal);
+        String tamanhoChave = jdbcTemplate.queryForObject(
+                "SELECT pg_size_pretty(pg_relation_size('" + tabela + "_pkey'))", String.class);
+        return new Resultado(TOTAL_INSERCOES * 1_000_000_000L / duracao, bytesWal / TOTAL_INSERCOES, tamanhoChave);
+    }
+
+    private record Resultado(long linhasPorSegundo, long walPorLinha, String tamanhoChave) {
+
+        @Override
+        public String toString() {
+            return String.format("%d linhas/s, %d bytes de WAL por linha, chave primaria com %s",
+                    linhasPorSegundo, walPorLinha, tamanhoChave);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.pagamento.Pagamento.Repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Particoes mensais de pagamento no banco criado pelas migracoes do Flyway.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class ParticaoPagamentoJdbcRepositoryTest {
+
+    // Fora dos meses criados pela V7 e por ParticoesPagamento
+    private static final YearMonth MES = YearMonth.of(2100, 1);
+
+    @Container
+    private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine")
+                                                            .withDatabaseName("testdb")
+                                                            .withUsername("admin")
+                                                            .withPassword("admin");
+
+    @Autowired
+    private ParticaoPagamentoJdbcRepository particaoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Sets the dynamic properties for the Spring datasource.
+     *
+     * @param dynamicPropertyRegistry the registry to add the dynamic properties to
+     */
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", container::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", container::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", container::getPassword);
+    }
+
+    /**
+     * Closes the container after the tests have been executed.
+     */
+    @AfterAll
+    static void tearDown() {
+        container.close();
+    }
+
+    /**
+     * Um DETACH CONCURRENTLY interrompido deixa a particao pendente; a execucao seguinte de desanexar a
+     * conclui com FINALIZE e a tabela continua no banco.
+     */
+    @Test
+    public void testDesanexacaoInterrompidaEConcluida() throws SQLException {
+        String particao = ParticaoPagamentoJdbcRepository.nome(MES);
+        particaoRepository.criar(MES);
+
+        // A transacao aberta sobre pagamento segura a segunda fase do DETACH, que o timeout interrompe
+        try (Connection leitura = dataSource.getConnection(); Connection desanexacao = dataSource.getConnection();
+             Statement consulta = leitura.createStatement(); Statement comando = desanexacao.createStatement()) {
+            leitura.setAutoCommit(false);
+            consulta.execute("SELECT count(*) FROM pagamento");
+            comando.execute("SET statement_timeout = '1s'");
+            assertThrows(SQLException.class,
+                    () -> comando.execute("ALTER TABLE pagamento DETACH PARTITION " + particao + " CONCURRENTLY"));
+            comando.execute("RESET statement_timeout");
+            leitura.rollback();
+        }
+        assertTrue(jdbcTemplate.queryForObject(
+                "SELECT inhdetachpending FROM pg_inherits WHERE inhrelid = ?::regclass", Boolean.class, particao));
+
+        particaoRepository.desanexar(MES);
+
+        assertFalse(particaoRepository.listarMeses().contains(MES));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_class WHERE relname = ?", Integer.class, particao));
+    }
+}
@@ -0,0 +1,190 @@
+package com.pagamento.Pagamento.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.pagamento.Cartao.Model.Cartao;
+import com.pagamento.Cartao.Service.CartaoService;
+import com.pagamento.Cliente.Repository.ClienteRepository;
+import com.pagamento.Cliente.Service.ClienteService;
+import com.pagamento.Exception.LimiteCartaoException;
+import com.pagamento.Exception.MessageNotFoundException;
+import com.pagamento.Pagamento.DTO.ResultadoPagamentoLoteDto;
+import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Model.StatusPagamento;
+import com.pagamento.utils.utils;
+
+/**
+ * Autorizacao com pagamento.autorizacao.modo=banco: o UPDATE condicional de CartaoRepository.autorizarDebito
+ * decide o pagamento e o limite so muda quando ele e aprovado.
+ */
+@SpringBootTest(properties = "pagamento.autorizacao.modo=banco")
+@Testcontainers
+class AutorizacaoBancoTest {
+
+    private static final String CPF = "33475078007";
+    private static final String CPF_SEM_CADASTRO = "44593864020";
+    private static final String NUMERO = "1234567812345678";
+    private static final String NUMERO_SEM_CLIENTE = "8765432187654321";
+
+    @Autowired
+    private PagamentoService pagamentoService;
+
+    @Autowired
+    private CartaoService cartaoService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Container
+    private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine")
+                                                            .withDatabaseName("testdb")
+                                                            .withUsername("admin")
+                                                            .withPassword("admin");
+
+    /**
+     * Starts the container before all tests are run.
+     */
+    @BeforeAll
+    static void beforeAll() {
+        container.start();
+    }
+
+    /**
+     * Closes the container after all tests have been executed.
+     */
+    @AfterAll
+    static void tearDown() {
+        container.close();
+    }
+
+    /**
+     * Sets the dynamic properties for the Spring datasource.
+     *
+     * @param dynamicPropertyRegistry the registry to add the dynamic properties to
+     */
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", container::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", container::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", container::getPassword);
+    }
+
+    /**
+     * Registers one client with a card of limit 100.00, and a second card whose CPF has no client.
+     */
+    @BeforeEach
+    void setUp() {
+        clienteRepository.save(clienteService.toEntity(clienteService.toDTO(utils.criarClienteTeste())));
+        cartaoService.criarCartao(new Cartao(NUMERO, CPF, new BigDecimal("100.00"), "12/29", "123"));
+        cartaoService.criarCartao(new Cartao(NUMERO_SEM_CLIENTE, CPF_SEM_CADASTRO, new BigDecimal("100.00"), "12/29", "123"));
+    }
+
+    /**
+     * Removes payments, outbox events, cards and clients created by the test.
+     */
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE pagamento, evento_pagamento, cartao CASCADE");
+        clienteRepository.deleteAll();
+    }
+
+    /**
+     * Um pagamento dentro do limite e aprovado e debitado no mesmo UPDATE.
+     */
+    @Test
+    void testAutorizarDebitoAprovado() {
+        Pagamento salvo = pagamentoService.cadastrarPagamento(pagamento(CPF, NUMERO, "123", "40.00"));
+
+        assertNotNull(salvo.getChavePagamento());
+        assertEquals(new BigDecimal("60.00"), limite(NUMERO));
+    }
+
+    /**
+     * Um valor acima do limite e recusado e o limite nao muda.
+     */
+    @Test
+    void testAutorizarDebitoLimiteInsuficiente() {
+        LimiteCartaoException erro = assertThrows(LimiteCartaoException.class,
+                () -> pagamentoService.cadastrarPagamento(pagamento(CPF, NUMERO, "123", "100.01")));
+
+        assertEquals("Limite insuficiente para a compra", erro.getMessage());
+        assertEquals(new BigDecimal("100.00"), limite(NUMERO));
+    }
+
+    /**
+     * Um CVV incorreto e recusado com o motivo e o limite nao muda.
+     */
+    @Test
+    void testAutorizarDebitoCvvIncorreto() {
+        MessageNotFoundException erro = assertThrows(MessageNotFoundException.class,
+                () -> pagamentoService.cadastrarPagamento(pagamento(CPF, NUMERO, "999", "10.00")));
+
+        assertEquals("Código CVV incorreto, compra recusada", erro.getMessage());
+        assertEquals(new BigDecimal("100.00"), limite(NUMERO));
+    }
+
+    /**
+     * Um cartao cujo CPF nao tem cliente cadastrado e recusado e o limite nao muda.
+     */
+    @Test
+    void testAutorizarDebitoClienteNaoEncontrado() {
+        MessageNotFoundException erro = assertThrows(MessageNotFoundException.class,
+                () -> pagamentoService.cadastrarPagamento(pagamento(CPF_SEM_CADASTRO, NUMERO_SEM_CLIENTE, "123", "10.00")));
+
+        assertEquals("Cliente não encontrado para este CPF: " + CPF_SEM_CADASTRO, erro.getMessage());
+        assertEquals(new BigDecimal("100.00"), limite(NUMERO_SEM_CLIENTE));
+    }
+
+    /**
+     * Em lote, cada UPDATE condicional do batch decide o seu item: o segundo debito do mesmo cartao
+     * ja ve o limite reduzido pelo primeiro.
+     */
+    @Test
+    void testAutorizarDebitosEmLote() {
+        List<ResultadoPagamentoLoteDto> resultados = pagamentoService.cadastrarPagamentosEmLote(List.of(
+                pagamento(CPF, NUMERO, "123", "40.00"),
+                pagamento(CPF, NUMERO, "999", "10.00"),
+                pagamento(CPF, NUMERO, "123", "70.00"),
+                pagamento(CPF_SEM_CADASTRO, NUMERO_SEM_CLIENTE, "123", "10.00")));
+
+        assertEquals(List.of(StatusPagamento.APROVADO, StatusPagamento.CVV_INCORRETO,
+                        StatusPagamento.LIMITE_INSUFICIENTE, StatusPagamento.CLIENTE_NAO_ENCONTRADO),
+                resultados.stream().map(ResultadoPagamentoLoteDto::getStatus).toList());
+        assertNotNull(resultados.get(0).getChavePagamento());
+        assertEquals(new BigDecimal("60.00"), limite(NUMERO));
+        assertEquals(new BigDecimal("100.00"), limite(NUMERO_SEM_CLIENTE));
+    }
+
+    private static Pagamento pagamento(String cpf, String numero, String cvv, String valor) {
+        return new Pagamento(null, cpf, numero, "12/29", cvv, new BigDecimal(valor), null);
+    }
+
+    private BigDecimal limite(String numero) {
+        return cartaoService.buscarCartaoPorNumero(numero).getLimite();
+    }
+}
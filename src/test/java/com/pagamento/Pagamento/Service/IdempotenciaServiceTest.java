@@ -0,0 +1,232 @@
+package com.pagamento.Pagamento.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Config.CacheConfig;
+import com.pagamento.Exception.ServiceException;
+import com.pagamento.Pagamento.Model.IdempotenciaPagamento;
+import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Repository.IdempotenciaPagamentoRepository;
+
+class IdempotenciaServiceTest {
+
+    private static final String CHAVE = "9b2f1c1e-0d1f-4a55-9b8c-3a4b5c6d7e8f";
+    private static final String CPF = "33475078007";
+    private static final String NUMERO = "1234567812345678";
+
+    private final IdempotenciaPagamentoRepository repository = mock(IdempotenciaPagamentoRepository.class);
+    // Linhas de idempotencia_pagamento, compartilhadas pelas instancias
+    private final Map<String, IdempotenciaPagamento> tabela = new ConcurrentHashMap<>();
+    private IdempotenciaService idempotenciaService;
+
+    @BeforeEach
+    void setUp() {
+        idempotenciaService = novaInstancia();
+        when(repository.reservar(anyString(), anyString(), any())).thenAnswer(invocacao ->
+                tabela.putIfAbsent(invocacao.getArgument(0), new IdempotenciaPagamento(invocacao.getArgument(0), null,
+                        null, invocacao.getArgument(1), invocacao.getArgument(2))) == null ? 1 : 0);
+        when(repository.concluir(anyString(), anyInt(), any())).thenAnswer(invocacao ->
+                tabela.computeIfPresent(invocacao.getArgument(0), (chave, registro) -> registro.getStatusHttp() != null
+                        ? registro : new IdempotenciaPagamento(chave, invocacao.getArgument(1), invocacao.getArgument(2),
+                                registro.getImpressao(), registro.getCriadoEm())) == null ? 0 : 1);
+        when(repository.liberar(anyString())).thenAnswer(invocacao ->
+                tabela.computeIfPresent(invocacao.getArgument(0),
+                        (chave, registro) -> registro.getStatusHttp() != null ? registro : null) == null ? 1 : 0);
+        when(repository.consultar(anyString())).thenAnswer(invocacao -> Optional.ofNullable(tabela.get(invocacao.getArgument(0))));
+    }
+
+    /**
+     * A mesma chave com o mesmo conteudo e reenviada; com outro valor, ou por outro chamador, e recusada com 422
+     * sem executar a operacao de novo.
+     */
+    @Test
+    public void testChaveVinculadaARequisicaoOriginal() {
+        AtomicInteger execucoes = new AtomicInteger();
+        String original = idempotenciaService.impressao("", CPF, NUMERO, "12/29", "123", new BigDecimal("10.00"));
+
+        idempotenciaService.executar(CHAVE, original, () -> {
+            execucoes.incrementAndGet();
+            return ResponseEntity.ok("aprovado");
+        });
+        ResponseEntity<?> reenvio = idempotenciaService.executar(CHAVE,
+                idempotenciaService.impressao("", CPF, NUMERO, "12/29", "123", new BigDecimal("10.0")), null);
+        ResponseEntity<?> outroValor = idempotenciaService.executar(CHAVE,
+                idempotenciaService.impressao("", CPF, NUMERO, "12/29", "123", new BigDecimal("99.00")), null);
+        ResponseEntity<?> outroChamador = idempotenciaService.executar(CHAVE,
+                idempotenciaService.impressao("outro", CPF, NUMERO, "12/29", "123", new BigDecimal("10.00")), null);
+
+        assertEquals(HttpStatus.OK, reenvio.getStatusCode());
+        assertEquals("true", reenvio.getHeaders().getFirst(IdempotenciaService.CABECALHO_REENVIO));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, outroValor.getStatusCode());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, outroChamador.getStatusCode());
+        assertEquals(1, execucoes.get());
+    }
+
+    /**
+     * A impressao e um HMAC: nao contem os campos e muda com o segredo.
+     */
+    @Test
+    public void testImpressaoNaoExpoeCampos() {
+        String impressao = idempotenciaService.impressao("", CPF, NUMERO, "12/29", "123", BigDecimal.TEN);
+        IdempotenciaService outroSegredo = new IdempotenciaService(repository, new ObjectMapper(),
+                new ConcurrentMapCacheManager(CacheConfig.IDEMPOTENCIA), "outro-segredo");
+
+        assertEquals(64, impressao.length());
+        assertFalse(impressao.contains(NUMERO));
+        assertNotEquals(impressao, outroSegredo.impressao("", CPF, NUMERO, "12/29", "123", BigDecimal.TEN));
+    }
+
+    /**
+     * Uma requisicao com a chave de outra ainda em andamento espera no maximo o tempo configurado e recebe 409.
+     */
+    @Test
+    public void testEsperaPelaRequisicaoEmAndamentoLimitada() throws Exception {
+        String impressao = idempotenciaService.impressao("", CPF, NUMERO, "12/29", "123", BigDecimal.TEN);
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> primeira = CompletableFuture.supplyAsync(() ->
+                idempotenciaService.executar(CHAVE, impressao, () -> {
+                    iniciada.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ResponseEntity.ok("aprovado");
+                }));
+        assertTrue(iniciada.await(5, TimeUnit.SECONDS));
+
+        ResponseEntity<?> segunda = idempotenciaService.executar(CHAVE, impressao, null);
+        liberar.countDown();
+
+        assertEquals(HttpStatus.CONFLICT, segunda.getStatusCode());
+        assertEquals(HttpStatus.OK, primeira.get(5, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    /**
+     * Duas instancias recebem a mesma chave ao mesmo tempo: so a que a reservou executa a operacao, e a outra,
+     * sem nada em memoria, espera a conclusao no banco e reenvia a resposta.
+     */
+    @Test
+    public void testChaveReservadaPorOutraInstancia() throws Exception {
+        String impressao = idempotenciaService.impressao("", CPF, NUMERO, "12/29", "123", BigDecimal.TEN);
+        IdempotenciaService outraInstancia = novaInstancia();
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> primeira = CompletableFuture.supplyAsync(() ->
+                idempotenciaService.executar(CHAVE, impressao, () -> {
+                    execucoes.incrementAndGet();
+                    iniciada.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ResponseEntity.ok("aprovado");
+                }));
+        assertTrue(iniciada.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ResponseEntity<?>> segunda = CompletableFuture.supplyAsync(() ->
+                outraInstancia.executar(CHAVE, impressao, () -> {
+                    execucoes.incrementAndGet();
+                    return ResponseEntity.ok("aprovado");
+                }));
+        Thread.sleep(50);
+        liberar.countDown();
+
+        assertEquals(HttpStatus.OK, primeira.get(5, TimeUnit.SECONDS).getStatusCode());
+        ResponseEntity<?> reenvio = segunda.get(5, TimeUnit.SECONDS);
+        assertEquals(HttpStatus.OK, reenvio.getStatusCode());
+        assertEquals("true", reenvio.getHeaders().getFirst(IdempotenciaService.CABECALHO_REENVIO));
+        assertEquals(1, execucoes.get());
+    }
+
+    /**
+     * Uma reserva que nao e concluida, como a de uma instancia que caiu durante a autorizacao, nao e executada
+     * de novo: a chave e recusada com 409.
+     */
+    @Test
+    public void testReservaPendenteNaoEExecutadaDeNovo() {
+        String impressao = idempotenciaService.impressao("", CPF, NUMERO, "12/29", "123", BigDecimal.TEN);
+        tabela.put(CHAVE, new IdempotenciaPagamento(CHAVE, null, null, impressao, Instant.now()));
+        AtomicInteger execucoes = new AtomicInteger();
+
+        ResponseEntity<?> resposta = idempotenciaService.executar(CHAVE, impressao, () -> {
+            execucoes.incrementAndGet();
+            return ResponseEntity.ok("aprovado");
+        });
+
+        assertEquals(HttpStatus.CONFLICT, resposta.getStatusCode());
+        assertEquals(0, execucoes.get());
+    }
+
+    /**
+     * Uma operacao que falha libera a reserva: a mesma chave e executada na tentativa seguinte.
+     */
+    @Test
+    public void testFalhaLiberaAChave() {
+        assertThrows(ServiceException.class, () -> idempotenciaService.executar(CHAVE, "impressao", () -> {
+            throw new ServiceException("Erro no cadastro");
+        }));
+
+        ResponseEntity<?> nova = idempotenciaService.executar(CHAVE, "impressao", () -> ResponseEntity.ok("aprovado"));
+
+        assertEquals(HttpStatus.OK, nova.getStatusCode());
+        assertNull(nova.getHeaders().getFirst(IdempotenciaService.CABECALHO_REENVIO));
+    }
+
+    /**
+     * A resposta guardada para reenvio traz o numero do cartao mascarado.
+     */
+    @Test
+    public void testCorpoGuardadoComNumeroMascarado() {
+        Pagamento pagamento = new Pagamento(null, CPF, NUMERO, "12/29", "123", BigDecimal.TEN, null);
+
+        idempotenciaService.executar(CHAVE, "impressao", () -> ResponseEntity.ok(pagamento));
+
+        ArgumentCaptor<String> corpo = ArgumentCaptor.forClass(String.class);
+        verify(repository).concluir(eq(CHAVE), eq(200), corpo.capture());
+        assertFalse(corpo.getValue().contains(NUMERO));
+        assertTrue(corpo.getValue().contains("\"numero\":\"************5678\""));
+    }
+
+    private IdempotenciaService novaInstancia() {
+        IdempotenciaService instancia = new IdempotenciaService(repository, new ObjectMapper(),
+                new ConcurrentMapCacheManager(CacheConfig.IDEMPOTENCIA), "segredo-de-teste");
+        ReflectionTestUtils.setField(instancia, "espera", Duration.ofMillis(200));
+        return instancia;
+    }
+}
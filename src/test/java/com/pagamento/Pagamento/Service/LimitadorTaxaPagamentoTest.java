@@ -0,0 +1,118 @@
+package com.pagamento.Pagamento.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LimitadorTaxaPagamentoTest {
+
+    private static final String CPF = "33475078007";
+    private static final String CARTAO = "1234567812345678";
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong relogio = new AtomicLong(1_000 * SEGUNDO);
+    private LimitadorTaxaPagamento limitador;
+
+    @BeforeEach
+    void setUp() {
+        // CPF: 2 por segundo, rajada de 4; cartao: 1 por segundo, rajada de 2
+        limitador = new LimitadorTaxaPagamento(true, 2, 4, 1, 2, Duration.ofMinutes(5), relogio::get);
+    }
+
+    /**
+     * A rajada configurada e aceita de imediato; a requisicao seguinte e recusada com o tempo de espera.
+     */
+    @Test
+    public void testRajadaEEspera() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, limitador.consumir(CPF, "000000000000000" + i));
+        }
+        assertEquals(SEGUNDO / 2, limitador.consumir(CPF, "0000000000000009"));
+
+        relogio.addAndGet(SEGUNDO / 2);
+        assertEquals(0, limitador.consumir(CPF, "0000000000000009"));
+    }
+
+    /**
+     * O limite do cartao vale para CPFs diferentes e a recusa pelo cartao devolve o token do CPF.
+     */
+    @Test
+    public void testLimitePorCartaoDevolveTokenDoCpf() {
+        assertEquals(0, limitador.consumir("11111111111", CARTAO));
+        assertEquals(0, limitador.consumir("22222222222", CARTAO));
+        assertEquals(SEGUNDO, limitador.consumir(CPF, CARTAO));
+
+        // O CPF nao perdeu o token da tentativa recusada: a rajada de 4 continua disponivel
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, limitador.consumir(CPF, "000000000000000" + i));
+        }
+    }
+
+    /**
+     * Com 1.000 threads concorrentes no mesmo CPF somente a rajada e aprovada.
+     */
+    @Test
+    public void testConcorrenciaNaoUltrapassaRajada() throws InterruptedException {
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger aprovadas = new AtomicInteger();
+        Thread[] threads = new Thread[1_000];
+        for (int i = 0; i < threads.length; i++) {
+            String cartao = String.format("%016d", i);
+            threads[i] = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (limitador.consumir(CPF, cartao) == 0) {
+                    aprovadas.incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        largada.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(4, aprovadas.get());
+    }
+
+    /**
+     * Buckets ociosos e cheios sao removidos; buckets em uso permanecem.
+     */
+    @Test
+    public void testRemocaoDeOciosos() {
+        limitador.consumir(CPF, CARTAO);
+        assertEquals(2, limitador.totalBuckets());
+
+        relogio.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        limitador.removerOciosos();
+        assertEquals(2, limitador.totalBuckets());
+
+        relogio.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        limitador.removerOciosos();
+        assertEquals(0, limitador.totalBuckets());
+        assertEquals(0, limitador.consumir(CPF, CARTAO));
+    }
+
+    /**
+     * Desabilitado, o limitador aceita tudo sem criar buckets.
+     */
+    @Test
+    public void testDesabilitado() {
+        LimitadorTaxaPagamento desabilitado = new LimitadorTaxaPagamento(false, 1, 1, 1, 1, Duration.ofMinutes(5), relogio::get);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, desabilitado.consumir(CPF, CARTAO));
+        }
+        assertTrue(desabilitado.totalBuckets() == 0);
+    }
+}
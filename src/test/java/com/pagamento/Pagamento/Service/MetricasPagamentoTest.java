@@ -0,0 +1,66 @@
+package com.pagamento.Pagamento.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pagamento.Pagamento.Model.StatusPagamento;
+import com.pagamento.Pagamento.Service.MetricasPagamento.Etapa;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+class MetricasPagamentoTest {
+
+    private final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private final MetricasPagamento metricas = new MetricasPagamento(registry);
+
+    /**
+     * Cada etapa registra no seu proprio timer e o retorno serve de inicio para a etapa seguinte.
+     */
+    @Test
+    public void testRegistrarEtapas() {
+        long inicio = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+        long fimCliente = metricas.registrar(Etapa.CLIENTE, inicio);
+        metricas.registrar(Etapa.CARTAO, fimCliente);
+
+        Timer cliente = registry.get("pagamento.autorizacao.etapa").tag("etapa", "cliente").timer();
+        assertEquals(1, cliente.count());
+        assertTrue(cliente.totalTime(TimeUnit.MILLISECONDS) >= 5);
+        assertEquals(1, registry.get("pagamento.autorizacao.etapa").tag("etapa", "cartao").timer().count());
+        assertEquals(0, registry.get("pagamento.autorizacao.etapa").tag("etapa", "insercao").timer().count());
+    }
+
+    /**
+     * As recusas sao contadas por motivo; pagamentos aprovados nao tem contador.
+     */
+    @Test
+    public void testRecusasPorMotivo() {
+        metricas.recusar(StatusPagamento.CVV_INCORRETO);
+        metricas.recusar(StatusPagamento.CVV_INCORRETO);
+        metricas.recusar(StatusPagamento.LIMITE_INSUFICIENTE);
+        metricas.recusar(StatusPagamento.APROVADO);
+
+        assertEquals(2, registry.get("pagamento.recusas").tag("motivo", "cvv_incorreto").counter().count());
+        assertEquals(1, registry.get("pagamento.recusas").tag("motivo", "limite_insuficiente").counter().count());
+        assertEquals(0, registry.get("pagamento.recusas").tag("motivo", "cartao_nao_encontrado").counter().count());
+        assertNull(registry.find("pagamento.recusas").tag("motivo", "aprovado").counter());
+    }
+
+    /**
+     * Os timers publicam os buckets do histograma, usados para calcular percentis no Prometheus.
+     */
+    @Test
+    public void testHistogramaNoFormatoPrometheus() {
+        metricas.registrar(Etapa.INSERCAO, System.nanoTime());
+
+        String saida = registry.scrape();
+        assertTrue(saida.contains("pagamento_autorizacao_etapa_seconds_bucket{etapa=\"insercao\""));
+        assertTrue(saida.contains("pagamento_recusas_total{motivo=\"cvv_incorreto\"}"));
+    }
+}
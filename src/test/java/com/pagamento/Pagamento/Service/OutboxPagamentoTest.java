@@ -0,0 +1,41 @@
+package com.pagamento.Pagamento.Service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Pagamento.Model.EventoPagamento;
+import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Repository.EventoPagamentoRepository;
+
+class OutboxPagamentoTest {
+
+    private static final String NUMERO = "1234567812345678";
+
+    private final EventoPagamentoRepository eventoPagamentoRepository = mock(EventoPagamentoRepository.class);
+    private final OutboxPagamento outbox = new OutboxPagamento(eventoPagamentoRepository, new ObjectMapper());
+
+    /**
+     * O payload gravado, que o relay entrega aos sinks sem alterar, traz apenas os 4 ultimos digitos do cartao.
+     */
+    @Test
+    public void testPayloadGravadoComNumeroMascarado() {
+        Pagamento pagamento = new Pagamento(UUID.randomUUID(), "33475078007", NUMERO, "12/29", "123",
+                new BigDecimal("10.00"), null);
+
+        outbox.registrarAprovado(pagamento);
+
+        ArgumentCaptor<EventoPagamento> evento = ArgumentCaptor.forClass(EventoPagamento.class);
+        verify(eventoPagamentoRepository).save(evento.capture());
+        assertFalse(evento.getValue().getPayload().contains(NUMERO));
+        assertTrue(evento.getValue().getPayload().contains("\"numero\":\"************5678\""));
+    }
+}
@@ -0,0 +1,216 @@
+package com.pagamento.Pagamento.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Cartao.DTO.CartaoAutorizacaoDTO;
+import com.pagamento.Cartao.DTO.DebitoCartaoDTO;
+import com.pagamento.Cartao.Service.CartaoService;
+import com.pagamento.Cartao.Service.LimiteCartaoLedger;
+import com.pagamento.Cartao.Utils.CvvHasher;
+import com.pagamento.Cliente.Model.Cliente;
+import com.pagamento.Cliente.Repository.ClienteRepository;
+import com.pagamento.Exception.LimiteCartaoException;
+import com.pagamento.Pagamento.DTO.ResultadoPagamentoLoteDto;
+import com.pagamento.Pagamento.Model.Pagamento;
+import com.pagamento.Pagamento.Model.StatusPagamento;
+import com.pagamento.Pagamento.Repository.EventoPagamentoRepository;
+import com.pagamento.Pagamento.Repository.PagamentoRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+class PagamentoServiceImplTest {
+
+    private static final String CPF = "33475078007";
+    private static final String NUMERO = "1234567812345678";
+
+    private final PagamentoRepository pagamentoRepository = mock(PagamentoRepository.class);
+    private final ClienteRepository clienteRepository = mock(ClienteRepository.class);
+    private final CartaoService cartaoService = mock(CartaoService.class);
+    private final LimiteCartaoLedger ledger = new LimiteCartaoLedger(100_000, Duration.ofMinutes(10));
+    // Relogio parado: cada cartao aceita uma rajada de 3 pagamentos
+    private final LimitadorTaxaPagamento limitador = new LimitadorTaxaPagamento(true, 1_000, 1_000, 1, 3,
+            Duration.ofMinutes(5), () -> 0L);
+
+    private PagamentoServiceImpl pagamentoService;
+
+    @BeforeEach
+    void setUp() {
+        pagamentoService = new PagamentoServiceImpl(pagamentoRepository, clienteRepository, cartaoService, ledger,
+                Validation.buildDefaultValidatorFactory().getValidator(), null, new ObjectMapper(),
+                new MetricasPagamento(new SimpleMeterRegistry()),
+                new OutboxPagamento(mock(EventoPagamentoRepository.class), new ObjectMapper()), limitador);
+        ReflectionTestUtils.setField(pagamentoService, "modoAutorizacao", ModoAutorizacao.MEMORIA);
+        when(clienteRepository.findByCpf(CPF)).thenReturn(new Cliente());
+        when(pagamentoRepository.save(any(Pagamento.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+        // A transacao do pagamento e simulada: as sincronizacoes sao disparadas em concluir()
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * O saldo do ledger parte do limite gravado no banco.
+     */
+    @Test
+    public void testSaldoInicialLidoDoLimiteGravado() {
+        cartaoEmCache();
+        when(cartaoService.buscarLimite(NUMERO)).thenReturn(new BigDecimal("10.00"));
+
+        assertThrows(LimiteCartaoException.class, () -> pagamentoService.cadastrarPagamento(pagamento("50.00")));
+
+        verify(cartaoService, never()).debitarLimite(any(), any());
+        assertEquals(1_000L, ledger.saldoDisponivel(NUMERO));
+    }
+
+    /**
+     * Quando o UPDATE condicional nao debita, o pagamento e recusado e o saldo em memoria e descartado
+     * ao fim da transacao; a reserva seguinte volta a ler o limite gravado.
+     */
+    @Test
+    public void testDebitoRecusadoPeloBancoRessincronizaLedger() {
+        cartaoEmCache();
+        when(cartaoService.buscarLimite(NUMERO)).thenReturn(new BigDecimal("100.00"), new BigDecimal("20.00"));
+        when(cartaoService.debitarLimite(eq(NUMERO), any())).thenReturn(false);
+
+        assertThrows(LimiteCartaoException.class, () -> pagamentoService.cadastrarPagamento(pagamento("50.00")));
+        verify(pagamentoRepository, never()).save(any());
+        concluir(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertNull(ledger.saldoDisponivel(NUMERO));
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThrows(LimiteCartaoException.class, () -> pagamentoService.cadastrarPagamento(pagamento("50.00")));
+        verify(cartaoService, times(2)).buscarLimite(NUMERO);
+        assertEquals(2_000L, ledger.saldoDisponivel(NUMERO));
+    }
+
+    /**
+     * Um lote com itens invalidos, recusados por cada motivo e acima da taxa do cartao devolve um status por
+     * item; no modo memoria os aprovados sao debitados com um unico UPDATE por cartao.
+     */
+    @Test
+    public void testLoteComStatusMistosEmMemoria() {
+        cartoesDoLote();
+        when(cartaoService.debitarLimitesEmLote(any())).thenReturn(Set.of());
+
+        List<ResultadoPagamentoLoteDto> resultados = pagamentoService.cadastrarPagamentosEmLote(loteMisto());
+
+        assertEquals(List.of(StatusPagamento.DADOS_INVALIDOS, StatusPagamento.CLIENTE_NAO_ENCONTRADO,
+                StatusPagamento.CARTAO_NAO_ENCONTRADO, StatusPagamento.CVV_INCORRETO, StatusPagamento.APROVADO,
+                StatusPagamento.LIMITE_INSUFICIENTE, StatusPagamento.LIMITE_REQUISICOES_EXCEDIDO), status(resultados));
+        verify(cartaoService).debitarLimitesEmLote(Map.of(NUMERO, new BigDecimal("30.00")));
+        verify(cartaoService, never()).autorizarDebitosEmLote(any());
+        verify(pagamentoRepository).saveAll(argThat(aprovados -> ((List<?>) aprovados).size() == 1));
+        assertEquals(7_000L, ledger.saldoDisponivel(NUMERO));
+    }
+
+    /**
+     * Quando o UPDATE do lote nao cobre o total do cartao, todos os itens desse cartao sao recusados.
+     */
+    @Test
+    public void testLoteRecusadoPeloBancoEmMemoria() {
+        cartoesDoLote();
+        when(cartaoService.debitarLimitesEmLote(any())).thenReturn(Set.of(NUMERO));
+
+        List<ResultadoPagamentoLoteDto> resultados = pagamentoService.cadastrarPagamentosEmLote(
+                List.of(pagamento("10.00"), pagamento("20.00")));
+
+        assertEquals(List.of(StatusPagamento.LIMITE_INSUFICIENTE, StatusPagamento.LIMITE_INSUFICIENTE), status(resultados));
+        verify(pagamentoRepository).saveAll(List.of());
+        concluir(TransactionSynchronization.STATUS_COMMITTED);
+        assertNull(ledger.saldoDisponivel(NUMERO));
+    }
+
+    /**
+     * No modo banco os itens que passam pelas validacoes vao para o batch de UPDATEs condicionais, cujo
+     * contador decide cada item; o ledger nao e usado.
+     */
+    @Test
+    public void testLoteMistoNoBanco() {
+        ReflectionTestUtils.setField(pagamentoService, "modoAutorizacao", ModoAutorizacao.BANCO);
+        cartoesDoLote();
+        when(cartaoService.autorizarDebitosEmLote(any())).thenReturn(new int[]{1, 0});
+
+        List<ResultadoPagamentoLoteDto> resultados = pagamentoService.cadastrarPagamentosEmLote(loteMisto());
+
+        assertEquals(List.of(StatusPagamento.DADOS_INVALIDOS, StatusPagamento.CLIENTE_NAO_ENCONTRADO,
+                StatusPagamento.CARTAO_NAO_ENCONTRADO, StatusPagamento.CVV_INCORRETO, StatusPagamento.APROVADO,
+                StatusPagamento.LIMITE_INSUFICIENTE, StatusPagamento.LIMITE_REQUISICOES_EXCEDIDO), status(resultados));
+        verify(cartaoService).autorizarDebitosEmLote(List.of(
+                new DebitoCartaoDTO(NUMERO, CPF, "123", new BigDecimal("30.00")),
+                new DebitoCartaoDTO(NUMERO, CPF, "123", new BigDecimal("80.00"))));
+        verify(cartaoService, never()).debitarLimitesEmLote(any());
+        verify(pagamentoRepository).saveAll(argThat(aprovados -> ((List<?>) aprovados).size() == 1));
+        assertNull(ledger.saldoDisponivel(NUMERO));
+    }
+
+    // Do 4o item em diante todos usam NUMERO; o setimo excede a rajada de 3 do cartao
+    private static List<Pagamento> loteMisto() {
+        List<Pagamento> lote = new ArrayList<>();
+        lote.add(null);
+        lote.add(new Pagamento(null, "44593864020", "8765432187654321", "12/29", "123", BigDecimal.TEN, null));
+        lote.add(new Pagamento(null, CPF, "0000000000000000", "12/29", "123", BigDecimal.TEN, null));
+        lote.add(new Pagamento(null, CPF, NUMERO, "12/29", "999", BigDecimal.TEN, null));
+        lote.add(pagamento("30.00"));
+        lote.add(pagamento("80.00"));
+        lote.add(pagamento("1.00"));
+        return lote;
+    }
+
+    private void cartoesDoLote() {
+        when(clienteRepository.findCpfsCadastrados(any())).thenReturn(List.of(CPF));
+        when(cartaoService.buscarCartoesParaAutorizacao(any())).thenReturn(Map.of(NUMERO, new CartaoAutorizacaoDTO(
+                NUMERO, CPF, "12/29", CvvHasher.hash(NUMERO, "123"))));
+        when(cartaoService.buscarLimite(NUMERO)).thenReturn(new BigDecimal("100.00"));
+    }
+
+    private static List<StatusPagamento> status(List<ResultadoPagamentoLoteDto> resultados) {
+        return resultados.stream().map(ResultadoPagamentoLoteDto::getStatus).toList();
+    }
+
+    private void cartaoEmCache() {
+        when(cartaoService.buscarCartaoParaAutorizacao(NUMERO)).thenReturn(new CartaoAutorizacaoDTO(
+                NUMERO, CPF, "12/29", CvvHasher.hash(NUMERO, "123")));
+    }
+
+    private static Pagamento pagamento(String valor) {
+        return new Pagamento(null, CPF, NUMERO, "12/29", "123", new BigDecimal(valor), null);
+    }
+
+    private static void concluir(int status) {
+        var sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(sincronizacoes, status);
+    }
+}
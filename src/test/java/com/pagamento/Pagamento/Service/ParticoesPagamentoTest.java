@@ -0,0 +1,59 @@
+package com.pagamento.Pagamento.Service;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.pagamento.Pagamento.Repository.ParticaoPagamentoJdbcRepository;
+
+class ParticoesPagamentoTest {
+
+    private static final YearMonth OUTUBRO = YearMonth.of(2026, 10);
+
+    private final ParticaoPagamentoJdbcRepository repository = mock(ParticaoPagamentoJdbcRepository.class);
+
+    /**
+     * Cria apenas os meses que faltam entre o atual e os futuros e desanexa, do mais antigo para o mais novo,
+     * as particoes anteriores a retencao.
+     */
+    @Test
+    public void testCriaFaltantesEDesanexaAntigas() {
+        when(repository.listarMeses()).thenReturn(List.of(
+                YearMonth.of(2026, 3), YearMonth.of(2026, 1), YearMonth.of(2026, 4), OUTUBRO, YearMonth.of(2026, 11)));
+
+        new ParticoesPagamento(repository, 3, 7).manter(OUTUBRO);
+
+        verify(repository, never()).criar(OUTUBRO);
+        verify(repository, never()).criar(YearMonth.of(2026, 11));
+        verify(repository).criar(YearMonth.of(2026, 12));
+        verify(repository).criar(YearMonth.of(2027, 1));
+        InOrder ordem = inOrder(repository);
+        ordem.verify(repository).desanexar(YearMonth.of(2026, 1));
+        ordem.verify(repository).desanexar(YearMonth.of(2026, 3));
+        verify(repository, never()).desanexar(YearMonth.of(2026, 4));
+    }
+
+    /**
+     * Com retencao zero nada e desanexado; a falha em um mes nao impede a criacao dos seguintes.
+     */
+    @Test
+    public void testSemRetencaoEFalhaIsolada() {
+        when(repository.listarMeses()).thenReturn(List.of(YearMonth.of(2020, 1)));
+        doThrow(new DataAccessResourceFailureException("lock timeout")).when(repository).criar(OUTUBRO);
+
+        new ParticoesPagamento(repository, 1, 0).manter(OUTUBRO);
+
+        verify(repository).criar(YearMonth.of(2026, 11));
+        verify(repository, never()).desanexar(YearMonth.of(2020, 1));
+    }
+}
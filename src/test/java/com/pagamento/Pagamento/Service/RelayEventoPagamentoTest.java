@@ -0,0 +1,115 @@
+package com.pagamento.Pagamento.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pagamento.Pagamento.Model.EventoPagamento;
+import com.pagamento.Pagamento.Repository.EventoPagamentoJdbcRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RelayEventoPagamentoTest {
+
+    private static final int TAMANHO_LOTE = 3;
+    private static final int LOTES_POR_EXECUCAO = 10;
+
+    private final EventoPagamentoJdbcRepository repository = mock(EventoPagamentoJdbcRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final List<EventoPagamento> publicados = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RelayEventoPagamento relay;
+
+    @BeforeEach
+    void setUp() {
+        // Sink local de teste: guarda em memoria os eventos recebidos
+        EventoPagamentoSink sink = publicados::addAll;
+        relay = new RelayEventoPagamento(repository, sink, new TransactionTemplate(transactionManager),
+                TAMANHO_LOTE, LOTES_POR_EXECUCAO, registry);
+    }
+
+    /**
+     * Lotes cheios sao drenados em sequencia, cada um na sua transacao, ate o primeiro lote incompleto.
+     */
+    @Test
+    public void testDrenaLotesAteEsvaziar() {
+        Deque<List<EventoPagamento>> lotes = new ArrayDeque<>(List.of(eventos(1, 3), eventos(4, 6), eventos(7, 7)));
+        when(repository.retirarLote(TAMANHO_LOTE)).thenAnswer(invocacao -> lotes.poll());
+
+        relay.drenar();
+
+        assertEquals(LongStream.rangeClosed(1, 7).boxed().toList(),
+                publicados.stream().map(EventoPagamento::getId).toList());
+        verify(repository, times(3)).retirarLote(TAMANHO_LOTE);
+        verify(transactionManager, times(3)).commit(any());
+        assertEquals(7, registry.get("pagamento.outbox.publicados").counter().count());
+    }
+
+    /**
+     * Com o outbox sempre cheio, cada execucao para apos lotes-por-execucao lotes e libera o agendador.
+     */
+    @Test
+    public void testExecucaoLimitadaALotesPorExecucao() {
+        when(repository.retirarLote(TAMANHO_LOTE)).thenAnswer(invocacao -> eventos(1, TAMANHO_LOTE));
+
+        relay.drenar();
+
+        verify(repository, times(LOTES_POR_EXECUCAO)).retirarLote(TAMANHO_LOTE);
+        assertEquals(LOTES_POR_EXECUCAO * TAMANHO_LOTE, publicados.size());
+    }
+
+    /**
+     * Uma falha no sink desfaz a transacao do lote, que permanece no outbox para a proxima execucao.
+     */
+    @Test
+    public void testFalhaNoSinkDesfazLote() {
+        when(repository.retirarLote(TAMANHO_LOTE)).thenReturn(eventos(1, 3));
+        relay = new RelayEventoPagamento(repository, eventos -> {
+            throw new IllegalStateException("destino indisponivel");
+        }, new TransactionTemplate(transactionManager), TAMANHO_LOTE, LOTES_POR_EXECUCAO, registry);
+
+        relay.drenar();
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertEquals(0, registry.get("pagamento.outbox.publicados").counter().count());
+        assertEquals(1, registry.get("pagamento.outbox.falhas").counter().count());
+    }
+
+    /**
+     * Com o outbox vazio o sink nao e chamado.
+     */
+    @Test
+    public void testOutboxVazio() {
+        when(repository.retirarLote(TAMANHO_LOTE)).thenReturn(List.of());
+
+        relay.drenar();
+
+        assertEquals(0, publicados.size());
+        verify(repository, times(1)).retirarLote(TAMANHO_LOTE);
+    }
+
+    private static List<EventoPagamento> eventos(long primeiro, long ultimo) {
+        return LongStream.rangeClosed(primeiro, ultimo)
+                .mapToObj(id -> new EventoPagamento(id, UUID.randomUUID(), EventoPagamento.PAGAMENTO_APROVADO,
+                        "{}", Instant.now()))
+                .toList();
+    }
+}
@@ -0,0 +1,88 @@
+package com.pagamento.Pagamento.Utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class UuidV7Test {
+
+    /**
+     * Versao 7, variante RFC 9562 e o milissegundo atual nos 48 bits mais altos.
+     */
+    @Test
+    public void testVersaoETimestamp() {
+        long antes = System.currentTimeMillis();
+        UUID uuid = UuidV7.gerar();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(UuidV7.timestamp(uuid) >= antes);
+        assertTrue(UuidV7.timestamp(uuid) <= System.currentTimeMillis() + 1);
+    }
+
+    /**
+     * Chaves geradas em sequencia sao estritamente crescentes, inclusive no mesmo milissegundo,
+     * e na ordem de comparacao do Postgres (bytes sem sinal).
+     */
+    @Test
+    public void testChavesCrescentes() {
+        UUID anterior = UuidV7.gerar();
+        for (int i = 0; i < 100_000; i++) {
+            UUID atual = UuidV7.gerar();
+            assertTrue(atual.toString().compareTo(anterior.toString()) > 0, anterior + " >= " + atual);
+            anterior = atual;
+        }
+    }
+
+    /**
+     * Threads concorrentes nunca recebem a mesma chave.
+     */
+    @Test
+    public void testChavesUnicasEntreThreads() throws Exception {
+        Set<UUID> chaves = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        chaves.add(UuidV7.gerar());
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(200_000, chaves.size());
+    }
+
+    /**
+     * O cursor da paginacao guarda o instante e a chave do ultimo pagamento; texto qualquer e recusado.
+     */
+    @Test
+    public void testCursorPagamento() {
+        Instant criadoEm = Instant.parse("2024-08-01T12:30:45.123456Z");
+        UUID chave = UuidV7.gerar();
+
+        CursorPagamento.Posicao posicao = CursorPagamento.decodificar(CursorPagamento.codificar(criadoEm, chave));
+
+        assertEquals(new CursorPagamento.Posicao(criadoEm, chave), posicao);
+        assertThrows(IllegalArgumentException.class, () -> CursorPagamento.decodificar("bm9wZQ"));
+        assertThrows(IllegalArgumentException.class, () -> CursorPagamento.decodificar("%%"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.pagamento.Usuario.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pagamento.Usuario.Payload.AuthenticationRequest;
+import com.pagamento.Usuario.Payload.AuthenticationResponse;
+import com.pagamento.Usuario.Security.ExecutorCredenciais;
+import com.pagamento.Usuario.Security.JwtUtil;
+import com.pagamento.Usuario.Service.MyUserDetailsService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuthenticationControllerTest {
+
+    private static final String USUARIO = "pedro";
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final MyUserDetailsService usuarioService = mock(MyUserDetailsService.class);
+    // Uma thread e uma vaga na fila: a terceira tarefa simultanea e recusada
+    private final ExecutorCredenciais executorCredenciais = new ExecutorCredenciais(1, 1, new SimpleMeterRegistry());
+
+    private AuthenticationController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new AuthenticationController();
+        ReflectionTestUtils.setField(controller, "authenticationManager", authenticationManager);
+        ReflectionTestUtils.setField(controller, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(controller, "usuarioService", usuarioService);
+        ReflectionTestUtils.setField(controller, "executorCredenciais", executorCredenciais);
+        when(usuarioService.loadUserByUsername(USUARIO)).thenReturn(new User(USUARIO, "hash", List.of()));
+        when(jwtUtil.generateToken(USUARIO)).thenReturn("token");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorCredenciais.encerrar();
+    }
+
+    /**
+     * A autenticacao roda no pool de credenciais e o token chega pelo future, nao pela thread da requisicao.
+     */
+    @Test
+    public void testTokenEmitidoNoPoolDeCredenciais() throws Exception {
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(authenticationManager.authenticate(any())).thenAnswer(invocacao -> {
+            thread.set(Thread.currentThread().getName());
+            return null;
+        });
+
+        ResponseEntity<?> resposta = controller.createAuthenticationToken(requisicao()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals("token", ((AuthenticationResponse) resposta.getBody()).getJwt());
+        assertTrue(thread.get().startsWith("credenciais-"), thread.get());
+    }
+
+    /**
+     * Enquanto o hash nao termina o controller ja devolveu o future; com o pool e a fila ocupados a
+     * requisicao seguinte recebe 503 na hora.
+     */
+    @Test
+    public void testPoolOcupadoRespondeSemBloquear() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocacao -> {
+            liberar.await();
+            return null;
+        });
+
+        CompletableFuture<ResponseEntity<?>> emAndamento = controller.createAuthenticationToken(requisicao());
+        CompletableFuture<ResponseEntity<?>> naFila = controller.createAuthenticationToken(requisicao());
+        CompletableFuture<ResponseEntity<?>> recusada = controller.createAuthenticationToken(requisicao());
+
+        assertFalse(emAndamento.isDone());
+        assertTrue(recusada.isDone());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, recusada.get().getStatusCode());
+        assertEquals("1", recusada.get().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        liberar.countDown();
+        assertEquals(HttpStatus.OK, emAndamento.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(HttpStatus.OK, naFila.get(5, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    /**
+     * Credenciais invalidas completam o future com a excecao original, tratada pelo GlobalExceptionHandler.
+     */
+    @Test
+    public void testCredenciaisInvalidasCompletamComExcecao() {
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        ExecutionException erro = assertThrows(ExecutionException.class,
+                () -> controller.createAuthenticationToken(requisicao()).get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(BadCredentialsException.class, erro.getCause());
+        verify(authenticationManager).authenticate(any());
+    }
+
+    private static AuthenticationRequest requisicao() {
+        AuthenticationRequest requisicao = new AuthenticationRequest();
+        requisicao.setUsername(USUARIO);
+        requisicao.setPassword("senha");
+        return requisicao;
+    }
+}
@@ -48,8 +48,7 @@ public class UsuarioControllerTest {
     private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine")
                                                                                       .withDatabaseName("testdb")
                                                                                       .withUsername("admin")
-                                                                                      .withPassword("admin")
-                                                                                      .withInitScript("test-data.sql");   
+                                                                                      .withPassword("admin");   
 
     /**
      * Sets the dynamic properties for the Spring datasource.
@@ -128,7 +127,7 @@ public class UsuarioControllerTest {
      */
     @Test
     void testCreateUser() throws Exception {
-        ResponseEntity<Usuario> user = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste());
+        ResponseEntity<Usuario> user = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste()).get();
 
         assertEquals(HttpStatus.OK, user.getStatusCode());
         assertEquals("Pedro Almeida", user.getBody().getUsername());
@@ -145,7 +144,7 @@ public class UsuarioControllerTest {
      */
     @Test
     void testDeleteUser() throws Exception {
-        ResponseEntity<Usuario> user = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste());
+        ResponseEntity<Usuario> user = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste()).get();
         controller.deleteUser(user.getBody().getId());
 
         assertEquals(HttpStatus.OK, user.getStatusCode());
@@ -162,8 +161,8 @@ public class UsuarioControllerTest {
      */
     @Test
     void testGetAllUsers() throws Exception {
-        ResponseEntity<Usuario> user = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste());
-        ResponseEntity<Usuario> user1 = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste1());
+        ResponseEntity<Usuario> user = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste()).get();
+        ResponseEntity<Usuario> user1 = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste1()).get();
 
         ResponseEntity<List<Usuario>> users = controller.getAllUsers();
         assertEquals(2, users.getBody().size());
@@ -182,7 +181,7 @@ public class UsuarioControllerTest {
      */
     @Test
     void testGetUserById() throws Exception {
-        ResponseEntity<Usuario> user = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste());
+        ResponseEntity<Usuario> user = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste()).get();
 
         ResponseEntity<Usuario> userEncontrado = controller.getUserById(user.getBody().getId());
         assertEquals(HttpStatus.OK, userEncontrado.getStatusCode());
@@ -201,7 +200,7 @@ public class UsuarioControllerTest {
      */
 //    @Test
 //    void testUpdateUser() throws Exception {
-//        ResponseEntity<Usuario> user = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste());
+//        ResponseEntity<Usuario> user = (ResponseEntity<Usuario>) authController.criarUsuario(utils.criarUsuarioTeste()).get();
 //        user.getBody().setUsername("Paulo Almeida");
 //
 //        ResponseEntity<Usuario> userEncontrado = controller.updateUser(user.getBody().getId(), user.getBody());
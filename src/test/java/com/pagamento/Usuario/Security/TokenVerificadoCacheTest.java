@@ -0,0 +1,62 @@
+package com.pagamento.Usuario.Security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TokenVerificadoCacheTest {
+
+    private JwtUtil jwtUtil;
+    private TokenVerificadoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        JwtUtil configurado = new JwtUtil();
+        ReflectionTestUtils.setField(configurado, "secret", "hakunamatata");
+        ReflectionTestUtils.setField(configurado, "expirationMs", 60_000L);
+        jwtUtil = spy(configurado);
+        cache = new TokenVerificadoCache(jwtUtil, 100, new SimpleMeterRegistry());
+    }
+
+    /**
+     * O mesmo token e verificado uma unica vez; as chamadas seguintes usam as claims do cache.
+     */
+    @Test
+    public void testTokenVerificadoUmaUnicaVez() {
+        String token = jwtUtil.generateToken("usuario");
+
+        Claims primeira = cache.verificar(token);
+        Claims segunda = cache.verificar(token);
+
+        assertEquals("usuario", primeira.getSubject());
+        assertEquals(primeira, segunda);
+        assertTrue(jwtUtil.validateToken(segunda, "usuario"));
+        assertFalse(jwtUtil.validateToken(segunda, "outro"));
+        verify(jwtUtil, times(1)).extrairClaims(token);
+    }
+
+    /**
+     * Tokens expirados sao recusados e nao entram no cache.
+     */
+    @Test
+    public void testTokenExpiradoNaoEArmazenado() {
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", -1_000L);
+        String token = jwtUtil.generateToken("usuario");
+
+        assertThrows(ExpiredJwtException.class, () -> cache.verificar(token));
+        assertThrows(ExpiredJwtException.class, () -> cache.verificar(token));
+        verify(jwtUtil, times(2)).extrairClaims(token);
+    }
+}
@@ -48,8 +48,7 @@ public class UsuarioServiceTest {
     private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine")
                                                                                         .withDatabaseName("testdb")
                                                                                         .withUsername("admin")
-                                                                                        .withPassword("admin")
-                                                                                        .withInitScript("test-data.sql");
+                                                                                        .withPassword("admin");
 
 	/**
 	 * Sets the dynamic properties for the Spring datasource.
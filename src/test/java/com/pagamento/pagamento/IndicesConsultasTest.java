@@ -0,0 +1,282 @@
+package com.pagamento.pagamento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pagamento.Cartao.DTO.CartaoResumo;
+import com.pagamento.Cartao.Repository.CartaoRepository;
+import com.pagamento.Cliente.DTO.ClienteResumo;
+import com.pagamento.Cliente.Repository.ClienteProjecaoRepository;
+import com.pagamento.Cliente.Repository.ClienteRepository;
+import com.pagamento.Cliente.Repository.EnderecoRepository;
+import com.pagamento.Pagamento.Repository.IdempotenciaPagamentoRepository;
+import com.pagamento.Pagamento.Repository.PagamentoRepository;
+import com.pagamento.Pagamento.Repository.ParticaoPagamentoJdbcRepository;
+import com.pagamento.Pagamento.Utils.PeriodoPagamentos;
+import com.pagamento.Usuario.Repository.UserRepository;
+
+/**
+ * Banco criado apenas pelas migracoes do Flyway: cada consulta dos repositorios JPA e executada uma vez,
+ * o SQL gerado pelo Hibernate e capturado e o plano generico do comando preparado (plan_cache_mode =
+ * force_generic_plan) so pode ler as tabelas por condicoes de indice, nunca por varredura completa.
+ *
+ * Ficam de fora as buscas por trecho (like '%...%') de ClienteRepository.findByNome e
+ * CartaoRepository.pesquisarPorNumero, que nao usam indice por definicao.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class IndicesConsultasTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine")
+                                                            .withDatabaseName("testdb")
+                                                            .withUsername("admin")
+                                                            .withPassword("admin");
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ClienteProjecaoRepository clienteProjecaoRepository;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartaoRepository cartaoRepository;
+
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+
+    @Autowired
+    private IdempotenciaPagamentoRepository idempotenciaPagamentoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Sets the dynamic properties for the Spring datasource and registers the SQL recorder.
+     *
+     * @param dynamicPropertyRegistry the registry to add the dynamic properties to
+     */
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", container::getJdbcUrl);
+        dynamicPropertyRegistry.add("spring.datasource.username", container::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", container::getPassword);
+        dynamicPropertyRegistry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                RegistroSql.class::getName);
+    }
+
+    /**
+     * Closes the container after the tests have been executed.
+     */
+    @AfterAll
+    static void tearDown() {
+        container.close();
+    }
+
+    /**
+     * Consultas de ClienteRepository, ClienteProjecaoRepository e EnderecoRepository.
+     */
+    @Test
+    public void testConsultasDeCliente() {
+        assertUsaIndice(() -> clienteRepository.findByCpf("33475078007"));
+        assertUsaIndice(() -> clienteRepository.existeCPF("33475078007"));
+        assertUsaIndice(() -> clienteRepository.findByEmail("maria@teste.com"));
+        assertUsaIndice(() -> clienteRepository.findCpfsCadastrados(List.of("33475078007", "11144477735")));
+        assertUsaIndice(() -> clienteRepository.findEmailsCadastrados(List.of("MARIA@TESTE.COM")));
+        assertUsaIndice(() -> clienteRepository.findByOrderByIdAsc(Limit.of(50), ClienteResumo.class));
+        assertUsaIndice(() -> clienteRepository.findByIdGreaterThanOrderByIdAsc(100, Limit.of(50), ClienteResumo.class));
+        assertUsaIndice(() -> clienteProjecaoRepository.buscarCampos(List.of("id", "nome"), 100L, 50));
+        assertUsaIndice(() -> enderecoRepository.findByCep("01001000"));
+    }
+
+    /**
+     * Consultas de UserRepository, usadas no login e na importacao de clientes.
+     */
+    @Test
+    public void testConsultasDeUsuario() {
+        assertUsaIndice(() -> userRepository.findByUsername("maria"));
+        assertUsaIndice(() -> userRepository.findUsernamesCadastrados(List.of("maria", "ana")));
+    }
+
+    /**
+     * Consultas e UPDATEs de CartaoRepository, inclusive a autorizacao no modo banco.
+     */
+    @Test
+    public void testConsultasDeCartao() {
+        assertUsaIndice(() -> cartaoRepository.countCartaoByCpf("33475078007"));
+        assertUsaIndice(() -> cartaoRepository.findByCpf("33475078007"));
+        assertUsaIndice(() -> cartaoRepository.findByNumeroIn(List.of("1234567812345678")));
+        assertUsaIndice(() -> cartaoRepository.findByOrderByNumeroAsc(Limit.of(50), CartaoResumo.class));
+        assertUsaIndice(() -> cartaoRepository.findByNumeroGreaterThanOrderByNumeroAsc("1234567812345678",
+                Limit.of(50), CartaoResumo.class));
+        assertUsaIndice(() -> transactionTemplate.execute(status ->
+                cartaoRepository.debitarLimite("1234567812345678", BigDecimal.TEN)));
+        assertUsaIndice(() -> transactionTemplate.execute(status ->
+                cartaoRepository.autorizarDebito("1234567812345678", "33475078007", "123", BigDecimal.TEN)));
+    }
+
+    /**
+     * Historico paginado e exportacao de pagamentos, e a limpeza das chaves de idempotencia.
+     */
+    @Test
+    public void testConsultasDePagamento() {
+        PeriodoPagamentos periodo = PeriodoPagamentos.de(null, null);
+        assertUsaIndice(() -> pagamentoRepository.findByCpfNoPeriodo("33475078007", periodo.inicio(), periodo.fim(),
+                Limit.of(50)));
+        assertUsaIndice(() -> pagamentoRepository.findByCpfNoPeriodoAposCursor("33475078007", periodo.inicio(),
+                periodo.fim(), Instant.now(), UUID.randomUUID(), Limit.of(50)));
+        assertUsaIndice(() -> transactionTemplate.execute(status ->
+                pagamentoRepository.streamByCpfNoPeriodo("33475078007", periodo.inicio(), periodo.fim()).count()));
+        assertUsaIndice(() -> idempotenciaPagamentoRepository.excluirCriadosAntesDe(Instant.now()));
+    }
+
+    /**
+     * Com o periodo do mes corrente o Postgres descarta as demais particoes de pagamento ja no plano.
+     */
+    @Test
+    public void testListagemRecenteLeApenasAParticaoDoMes() {
+        PeriodoPagamentos periodo = PeriodoPagamentos.de(PeriodoPagamentos.inicioDosUltimosMeses(1), null);
+        RegistroSql.limpar();
+        pagamentoRepository.findByCpfNoPeriodo("33475078007", periodo.inicio(), periodo.fim(), Limit.of(50));
+
+        JsonNode plano = explicar(RegistroSql.comandos().get(0),
+                "'33475078007'", "'" + periodo.inicio() + "'", "'" + periodo.fim() + "'", "51");
+        List<String> tabelas = new ArrayList<>();
+        tabelasLidas(plano, tabelas);
+        assertEquals(List.of(ParticaoPagamentoJdbcRepository.nome(YearMonth.now(ZoneOffset.UTC))), tabelas,
+                plano::toPrettyString);
+    }
+
+    private void assertUsaIndice(Runnable consulta) {
+        RegistroSql.limpar();
+        consulta.run();
+        List<String> comandos = RegistroSql.comandos();
+        assertFalse(comandos.isEmpty(), "Nenhum SQL capturado");
+
+        for (String sql : comandos) {
+            JsonNode plano = explicar(sql);
+            List<String> varreduras = new ArrayList<>();
+            varredurasCompletas(plano, varreduras);
+            assertTrue(varreduras.isEmpty(), () -> "Varredura sem indice " + varreduras + " em:\n" + sql
+                    + "\n" + plano.toPrettyString());
+        }
+    }
+
+    // Seq Scan, ou varredura de um indice inteiro que filtra as linhas sem condicao de indice (com
+    // enable_seqscan=off e a alternativa que o planejador escolhe quando falta o indice da coluna)
+    private static void varredurasCompletas(JsonNode no, List<String> varreduras) {
+        String tipo = no.path("Node Type").asText();
+        boolean semCondicao = !no.has("Index Cond") && !no.has("Recheck Cond");
+        if (tipo.equals("Seq Scan") || (tipo.endsWith("Scan") && no.has("Filter") && semCondicao)) {
+            varreduras.add(tipo + " " + no.path("Relation Name").asText(no.path("Index Name").asText()));
+        }
+        for (JsonNode filho : no.path("Plans")) {
+            varredurasCompletas(filho, varreduras);
+        }
+    }
+
+    private static void tabelasLidas(JsonNode no, List<String> tabelas) {
+        if (no.has("Relation Name")) {
+            tabelas.add(no.get("Relation Name").asText());
+        }
+        for (JsonNode filho : no.path("Plans")) {
+            tabelasLidas(filho, tabelas);
+        }
+    }
+
+    // Sem valores os parametros vao como NULL
+    private JsonNode explicar(String sql, String... valores) {
+        // Os parametros JDBC (?) viram $1, $2, ... do PREPARE; o plano generico nao depende dos valores
+        StringBuilder comParametros = new StringBuilder(sql.length());
+        int parametros = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                comParametros.append('$').append(++parametros);
+            } else {
+                comParametros.append(c);
+            }
+        }
+        List<String> argumentos = valores.length > 0 ? List.of(valores) : Collections.nCopies(parametros, "NULL");
+        String executar = parametros == 0 ? "EXECUTE consulta"
+                : "EXECUTE consulta(" + String.join(", ", argumentos) + ")";
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+            jdbcTemplate.execute("PREPARE consulta AS " + comParametros);
+            try {
+                String plano = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + executar, String.class);
+                return objectMapper.readTree(plano).get(0).get("Plan");
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                jdbcTemplate.execute("DEALLOCATE consulta");
+            }
+        });
+    }
+
+    /**
+     * Guarda o SQL preparado pelo Hibernate; registrado na SessionFactory pelas propriedades do teste.
+     */
+    public static class RegistroSql implements StatementInspector {
+
+        private static final List<String> COMANDOS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (COMANDOS) {
+                COMANDOS.add(sql);
+            }
+            return sql;
+        }
+
+        static void limpar() {
+            synchronized (COMANDOS) {
+                COMANDOS.clear();
+            }
+        }
+
+        static List<String> comandos() {
+            synchronized (COMANDOS) {
+                return List.copyOf(COMANDOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.pagamento.utils;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base dos benchmarks contra um Postgres em container, com INSERTs em lote reescritos pelo driver
+ * (reWriteBatchedInserts) e sem o log de SQL.
+ *
+ * Cada benchmark e anotado com @EnabledIfSystemProperty(named = "benchmark", matches = "true"), que nao e
+ * herdado, e roda apenas sob demanda: mvn test -Dbenchmark=true -Dtest=NomeDoBenchmarkTest
+ * Os resultados vao para o log; os benchmarks conferem apenas o volume de dados, nunca tempos.
+ */
+@SpringBootTest
+public abstract class BenchmarkPostgres {
+
+    // Um unico container para todos os benchmarks da execucao, iniciado quando o primeiro deles roda
+    protected static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine")
+                                                              .withDatabaseName("testdb")
+                                                              .withUsername("admin")
+                                                              .withPassword("admin");
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Starts the shared container; it is removed by Testcontainers when the JVM exits.
+     */
+    @BeforeAll
+    static void iniciarContainer() {
+        container.start();
+    }
+
+    /**
+     * Sets the dynamic properties for the Spring datasource.
+     *
+     * @param dynamicPropertyRegistry the registry to add the dynamic properties to
+     */
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("spring.datasource.url", () -> container.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        dynamicPropertyRegistry.add("spring.datasource.username", container::getUsername);
+        dynamicPropertyRegistry.add("spring.datasource.password", container::getPassword);
+        dynamicPropertyRegistry.add("spring.jpa.show-sql", () -> "false");
+    }
+}